@@ -2,8 +2,12 @@ package com.okarath.assessment;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC is only set up by ReactiveReadsConfig when the reactive reads are enabled, and only used for reads: its
+// transaction manager would stop JPA from registering its own
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class MatchOddsAppApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,16 @@
+package com.okarath.assessment;
+
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sets up the R2DBC connection pool and {@code DatabaseClient} only when the reactive reads are enabled, so the
+ * other instances neither open a second pool nor need the {@code spring.r2dbc.*} settings.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.reads.reactive.enabled", havingValue = "true")
+@ImportAutoConfiguration(R2dbcAutoConfiguration.class)
+public class ReactiveReadsConfig {
+}
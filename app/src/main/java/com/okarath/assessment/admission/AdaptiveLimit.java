@@ -0,0 +1,50 @@
+package com.okarath.assessment.admission;
+
+/**
+ * A concurrency limit that follows the latency of the requests it admits. The limit grows while the recent latency
+ * stays within {@code TOLERANCE} of the baseline, and shrinks in proportion once it gets slower: when connections
+ * run short or queries slow down, fewer requests are let through instead of queueing on the pool.
+ * <p>
+ * The baseline is the lowest recent latency, drifting up slowly so that a lasting change becomes the new normal.
+ * Not thread-safe, {@link AdmissionLimiter} updates it under its lock.
+ */
+class AdaptiveLimit {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double RECENT_SMOOTHING = 0.1;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double BASELINE_DRIFT = 1.001;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private double recentNanos = Double.NaN;
+    private double baselineNanos = Double.NaN;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Records the latency of a request that was admitted with {@code inFlight} requests of the class running.
+     */
+    void onSample(long latencyNanos, int inFlight) {
+        recentNanos = Double.isNaN(recentNanos) ? latencyNanos : recentNanos + RECENT_SMOOTHING * (latencyNanos - recentNanos);
+        baselineNanos = Double.isNaN(baselineNanos) ? recentNanos : Math.min(recentNanos, baselineNanos * BASELINE_DRIFT);
+
+        // far below the limit the latency says nothing about it, and growing it would only allow a later burst
+        if (inFlight < limit / 2) return;
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * baselineNanos / recentNanos));
+        // growing adds room for a few queued requests, shrinking takes none so the limit can reach its minimum
+        double target = gradient < 1.0 ? limit * gradient : limit + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit + LIMIT_SMOOTHING * (target - limit)));
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+}
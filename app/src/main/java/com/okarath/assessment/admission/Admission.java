@@ -0,0 +1,15 @@
+package com.okarath.assessment.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts the handler method under the concurrency limit of its endpoint class. Handlers without it are always admitted.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Admission {
+    EndpointClass value();
+}
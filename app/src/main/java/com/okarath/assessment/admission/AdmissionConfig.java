@@ -0,0 +1,45 @@
+package com.okarath.assessment.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(value = "app.admission.enabled", havingValue = "true")
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private final AdmissionLimiter admissionLimiter;
+
+    public AdmissionConfig(@Value("${app.admission.initial-limit:20}") int initialLimit,
+                           @Value("${app.admission.min-limit:2}") int minLimit,
+                           @Value("${app.admission.max-limit:200}") int maxLimit,
+                           @Value("${app.admission.queue-budget.odds-write:1s}") Duration oddsWriteBudget,
+                           @Value("${app.admission.queue-budget.match-write:500ms}") Duration matchWriteBudget,
+                           @Value("${app.admission.queue-budget.point-read:200ms}") Duration pointReadBudget,
+                           @Value("${app.admission.queue-budget.list-read:50ms}") Duration listReadBudget,
+                           @Value("${app.admission.retry-after:1s}") Duration retryAfter,
+                           MeterRegistry meterRegistry) {
+        this.admissionLimiter = new AdmissionLimiter(Map.of(
+                EndpointClass.ODDS_WRITE, oddsWriteBudget,
+                EndpointClass.MATCH_WRITE, matchWriteBudget,
+                EndpointClass.POINT_READ, pointReadBudget,
+                EndpointClass.LIST_READ, listReadBudget), initialLimit, minLimit, maxLimit, retryAfter, meterRegistry);
+    }
+
+    @Bean
+    public AdmissionLimiter admissionLimiter() {
+        return admissionLimiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(admissionLimiter)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,40 @@
+package com.okarath.assessment.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Admits requests to handlers annotated with {@link Admission} before they run and releases them once they
+ * have completed. A rejection is thrown from {@code preHandle} and answered with 429 by the exception handler.
+ */
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final AdmissionLimiter admissionLimiter;
+
+    public AdmissionInterceptor(AdmissionLimiter admissionLimiter) {
+        this.admissionLimiter = admissionLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) return true;
+        Admission admission = handlerMethod.getMethodAnnotation(Admission.class);
+        if (admission == null) return true;
+
+        request.setAttribute(PERMIT_ATTRIBUTE, admissionLimiter.acquire(admission.value()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            admissionLimiter.release((AdmissionLimiter.Permit) permit);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.okarath.assessment.admission;
+
+import com.okarath.assessment.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits requests up to the adaptive limit of their endpoint class. A request over the limit waits up to the
+ * queueing budget of its class and is then rejected with {@link TooManyRequestsException}. While any request of a
+ * higher class waits, lower classes are not admitted, so list reads are shed before odds writes.
+ */
+public class AdmissionLimiter {
+
+    private final Map<EndpointClass, ClassState> states = new EnumMap<>(EndpointClass.class);
+    private final Duration retryAfter;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public AdmissionLimiter(Map<EndpointClass, Duration> queueBudgets, int initialLimit, int minLimit, int maxLimit,
+                            Duration retryAfter, MeterRegistry meterRegistry) {
+        this.retryAfter = retryAfter;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            ClassState state = new ClassState(endpointClass, queueBudgets.getOrDefault(endpointClass, Duration.ZERO),
+                    new AdaptiveLimit(initialLimit, minLimit, maxLimit), lock.newCondition(),
+                    Counter.builder("admission.rejected")
+                            .description("Requests rejected with 429 because their endpoint class was over its limit")
+                            .tag("class", endpointClass.name())
+                            .register(meterRegistry));
+            Gauge.builder("admission.limit", state, ClassState::limit)
+                    .description("Current concurrency limit of the endpoint class")
+                    .tag("class", endpointClass.name())
+                    .register(meterRegistry);
+            Gauge.builder("admission.in-flight", state, ClassState::inFlight)
+                    .description("Admitted requests of the endpoint class still running")
+                    .tag("class", endpointClass.name())
+                    .register(meterRegistry);
+            states.put(endpointClass, state);
+        }
+    }
+
+    /**
+     * Waits for a slot of the endpoint class, at most for its queueing budget.
+     *
+     * @throws TooManyRequestsException if no slot became free within the budget
+     */
+    public Permit acquire(EndpointClass endpointClass) {
+        ClassState state = states.get(endpointClass);
+        lock.lock();
+        try {
+            if (!canAdmit(state)) {
+                long remaining = state.queueBudget.toNanos();
+                state.waiting++;
+                try {
+                    while (!canAdmit(state)) {
+                        if (remaining <= 0) throw reject(state);
+                        remaining = state.admissible.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw reject(state);
+                } finally {
+                    state.waiting--;
+                    // a request leaving the queue may unblock the lower classes
+                    signalWaiting();
+                }
+            }
+            state.inFlight++;
+            return new Permit(state, System.nanoTime(), state.inFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Permit permit) {
+        long latencyNanos = System.nanoTime() - permit.admittedAt;
+        lock.lock();
+        try {
+            ClassState state = permit.state;
+            state.inFlight--;
+            state.limit.onSample(latencyNanos, permit.inFlight);
+            signalWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit(EndpointClass endpointClass) {
+        return states.get(endpointClass).limit.limit();
+    }
+
+    private boolean canAdmit(ClassState state) {
+        if (state.inFlight >= state.limit.limit()) return false;
+        for (EndpointClass higher : EndpointClass.values()) {
+            if (higher == state.endpointClass) return true;
+            if (states.get(higher).waiting > 0) return false;
+        }
+        return true;
+    }
+
+    private void signalWaiting() {
+        for (ClassState state : states.values()) {
+            if (state.waiting > 0) state.admissible.signalAll();
+        }
+    }
+
+    private TooManyRequestsException reject(ClassState state) {
+        state.rejected.increment();
+        return new TooManyRequestsException(String.format("Too many %s requests, retry later",
+                state.endpointClass.name().toLowerCase().replace('_', ' ')), retryAfter);
+    }
+
+    /**
+     * An admitted request, to be released once it has completed.
+     */
+    public static final class Permit {
+        private final ClassState state;
+        private final long admittedAt;
+        private final int inFlight;
+
+        private Permit(ClassState state, long admittedAt, int inFlight) {
+            this.state = state;
+            this.admittedAt = admittedAt;
+            this.inFlight = inFlight;
+        }
+    }
+
+    private static final class ClassState {
+        private final EndpointClass endpointClass;
+        private final Duration queueBudget;
+        private final AdaptiveLimit limit;
+        private final Condition admissible;
+        private final Counter rejected;
+        private int inFlight;
+        private int waiting;
+
+        private ClassState(EndpointClass endpointClass, Duration queueBudget, AdaptiveLimit limit, Condition admissible, Counter rejected) {
+            this.endpointClass = endpointClass;
+            this.queueBudget = queueBudget;
+            this.limit = limit;
+            this.admissible = admissible;
+            this.rejected = rejected;
+        }
+
+        // read by the gauges without the lock, a slightly stale value is fine there
+        private double limit() {
+            return limit.limit();
+        }
+
+        private double inFlight() {
+            return inFlight;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.okarath.assessment.admission;
+
+/**
+ * Groups of endpoints that share a concurrency limit, highest priority first. While requests of a class are
+ * waiting for admission, no request of a lower class is admitted.
+ */
+public enum EndpointClass {
+    ODDS_WRITE,
+    MATCH_WRITE,
+    POINT_READ,
+    LIST_READ
+}
@@ -1,13 +1,22 @@
 package com.okarath.assessment.advice;
 
 import com.okarath.assessment.dto.ErrorDetails;
+import com.okarath.assessment.exception.InvalidCursorException;
+import com.okarath.assessment.exception.InvalidImportException;
+import com.okarath.assessment.exception.PreconditionFailedException;
+import com.okarath.assessment.exception.ResourceConflictException;
+import com.okarath.assessment.exception.ServiceUnavailableException;
 import com.okarath.assessment.exception.ResourceNotFoundException;
 import com.okarath.assessment.exception.ResourceAlreadyExistsException;
+import com.okarath.assessment.exception.TooManyRequestsException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @ControllerAdvice
 public class CustomExceptionHandler {
@@ -22,11 +31,54 @@ public class CustomExceptionHandler {
         return new ResponseEntity<>(new ErrorDetails(exception.getMessage()), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorDetails> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException exception) {
+        return new ResponseEntity<>(new ErrorDetails(String.format("Invalid value %s for %s", exception.getValue(), exception.getName())), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(ResourceAlreadyExistsException.class)
     public ResponseEntity<ErrorDetails> handleResourceAlreadyExistsException(ResourceAlreadyExistsException exception) {
         return new ResponseEntity<>(new ErrorDetails(exception.getMessage()), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ResourceConflictException.class)
+    public ResponseEntity<ErrorDetails> handleResourceConflictException(ResourceConflictException exception) {
+        return new ResponseEntity<>(new ErrorDetails(exception.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> handleOptimisticLockingFailureException(OptimisticLockingFailureException exception) {
+        return new ResponseEntity<>(new ErrorDetails("The resource was changed concurrently, retry the request"), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorDetails> handlePreconditionFailedException(PreconditionFailedException exception) {
+        return new ResponseEntity<>(new ErrorDetails(exception.getMessage()), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorDetails> handleInvalidCursorException(InvalidCursorException exception) {
+        return new ResponseEntity<>(new ErrorDetails(exception.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ErrorDetails> handleInvalidImportException(InvalidImportException exception) {
+        return new ResponseEntity<>(new ErrorDetails(exception.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorDetails> handleServiceUnavailableException(ServiceUnavailableException exception) {
+        return new ResponseEntity<>(new ErrorDetails(exception.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorDetails> handleTooManyRequestsException(TooManyRequestsException exception) {
+        long retryAfterSeconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ErrorDetails(exception.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorDetails> handleGenericException(Exception exception) {
         return new ResponseEntity<>(new ErrorDetails(exception.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,58 @@
+package com.okarath.assessment.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.okarath.assessment.dto.CacheStatsDto;
+import com.okarath.assessment.dto.VersionedOdds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Function;
+
+@Component
+@ConditionalOnProperty(name = "app.cache.odds.type", havingValue = "caffeine", matchIfMissing = true)
+public class CaffeineOddsCache implements OddsCache {
+
+    private final Cache<Long, VersionedOdds> cache;
+
+    public CaffeineOddsCache(@Value("${app.cache.odds.maximum-size:100000}") long maximumSize,
+                             @Value("${app.cache.odds.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public VersionedOdds get(Long matchId, Function<Long, VersionedOdds> loader) {
+        return cache.get(matchId, id -> {
+            VersionedOdds loaded = loader.apply(id);
+            return new VersionedOdds(loaded.version(), Set.copyOf(loaded.odds()));
+        });
+    }
+
+    /**
+     * Caffeine blocks an invalidation until a load of the same key has finished, so a load started before the
+     * commit is always dropped by the after-commit eviction.
+     */
+    @Override
+    public void evict(Long matchId) {
+        cache.invalidate(matchId);
+    }
+
+    @Override
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public CacheStatsDto stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+}
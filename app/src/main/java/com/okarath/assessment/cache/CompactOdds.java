@@ -0,0 +1,102 @@
+package com.okarath.assessment.cache;
+
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.entity.Specifier;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable set view over the odds of one match, with one id and odd field per {@link Specifier} so a view is a
+ * single small object. The {@link OddDto}s are only created while iterating, e.g. when the response is serialized.
+ */
+final class CompactOdds extends AbstractSet<OddDto> {
+
+    static final Specifier[] SPECIFIERS = Specifier.values();
+
+    static {
+        if (SPECIFIERS.length != 3) {
+            throw new IllegalStateException("CompactOdds holds exactly one field per Specifier");
+        }
+    }
+
+    private final long id0;
+    private final long id1;
+    private final long id2;
+    private final double odd0;
+    private final double odd1;
+    private final double odd2;
+    private final int present;
+
+    CompactOdds(long[] ids, int idOffset, double[] odds, int oddOffset, int present) {
+        this.id0 = ids[idOffset];
+        this.id1 = ids[idOffset + 1];
+        this.id2 = ids[idOffset + 2];
+        this.odd0 = odds[oddOffset];
+        this.odd1 = odds[oddOffset + 1];
+        this.odd2 = odds[oddOffset + 2];
+        this.present = present;
+    }
+
+    static CompactOdds of(Set<OddDto> oddDtos) {
+        long[] ids = new long[SPECIFIERS.length];
+        double[] odds = new double[SPECIFIERS.length];
+        int present = 0;
+        for (OddDto odd : oddDtos) {
+            int ordinal = odd.specifier().ordinal();
+            ids[ordinal] = odd.id();
+            odds[ordinal] = odd.odd();
+            present |= 1 << ordinal;
+        }
+        return new CompactOdds(ids, 0, odds, 0, present);
+    }
+
+    long id(int ordinal) {
+        return switch (ordinal) {
+            case 0 -> id0;
+            case 1 -> id1;
+            default -> id2;
+        };
+    }
+
+    double odd(int ordinal) {
+        return switch (ordinal) {
+            case 0 -> odd0;
+            case 1 -> odd1;
+            default -> odd2;
+        };
+    }
+
+    int present() {
+        return present;
+    }
+
+    @Override
+    public int size() {
+        return Integer.bitCount(present);
+    }
+
+    @Override
+    public Iterator<OddDto> iterator() {
+        return new Iterator<>() {
+            private int remaining = present;
+
+            @Override
+            public boolean hasNext() {
+                return remaining != 0;
+            }
+
+            @Override
+            public OddDto next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                int ordinal = Integer.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                return new OddDto(id(ordinal), SPECIFIERS[ordinal], odd(ordinal));
+            }
+        };
+    }
+}
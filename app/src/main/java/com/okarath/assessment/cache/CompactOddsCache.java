@@ -0,0 +1,232 @@
+package com.okarath.assessment.cache;
+
+import com.okarath.assessment.dto.CacheStatsDto;
+import com.okarath.assessment.dto.VersionedOdds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Keeps the odds of each match in flat primitive arrays: one slot per match, with the odd ids and values of a slot
+ * indexed by {@code Specifier.ordinal()}, found through a {@code long} to slot map. A slot costs about 110 bytes,
+ * about 11 MB for the default 100000 matches, and a hit allocates only the small {@link CompactOdds} view and
+ * its {@link VersionedOdds} wrapper.
+ * <p>
+ * All slots are allocated up front for {@code maximum-size} matches. When they are all in use, slots are reused
+ * in clock order.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.odds.type", havingValue = "compact")
+public class CompactOddsCache implements OddsCache {
+
+    private static final int SPECIFIERS = CompactOdds.SPECIFIERS.length;
+
+    private final int maximumSize;
+    private final long expireAfterWriteNanos;
+    private final StampedLock lock = new StampedLock();
+
+    private final LongIntHashMap slotsByMatchId;
+    private final long[] matchIds;
+    private final long[] versions;
+    private final long[] oddIds;
+    private final double[] odds;
+    private final byte[] present;
+    private final long[] writtenAt;
+    private final int[] freeSlots;
+    private int freeCount;
+    private int clockHand;
+    // numbers the evictions; a load that overlapped an eviction of its match, or of all matches, is not stored as it
+    // may predate the evicted change. Only matches with a load in flight are tracked.
+    private long evictionEpoch;
+    private long evictedAllAt;
+    private final Map<Long, Loading> loading = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CompactOddsCache(@Value("${app.cache.odds.maximum-size:100000}") int maximumSize,
+                            @Value("${app.cache.odds.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        this.slotsByMatchId = new LongIntHashMap(maximumSize);
+        this.matchIds = new long[maximumSize];
+        this.versions = new long[maximumSize];
+        this.oddIds = new long[maximumSize * SPECIFIERS];
+        this.odds = new double[maximumSize * SPECIFIERS];
+        this.present = new byte[maximumSize];
+        this.writtenAt = new long[maximumSize];
+        this.freeSlots = new int[maximumSize];
+        for (int slot = 0; slot < maximumSize; slot++) {
+            freeSlots[slot] = maximumSize - 1 - slot;
+        }
+        this.freeCount = maximumSize;
+    }
+
+    @Override
+    public VersionedOdds get(Long matchId, Function<Long, VersionedOdds> loader) {
+        VersionedOdds cached = read(matchId);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        long epoch = startLoad(matchId);
+        VersionedOdds compact;
+        try {
+            VersionedOdds loaded = loader.apply(matchId);
+            compact = new VersionedOdds(loaded.version(), CompactOdds.of(loaded.odds()));
+        } catch (RuntimeException | Error e) {
+            long stamp = lock.writeLock();
+            try {
+                finishLoad(matchId);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            throw e;
+        }
+        store(matchId, compact, epoch);
+        return compact;
+    }
+
+    @Override
+    public void evict(Long matchId) {
+        long stamp = lock.writeLock();
+        try {
+            evictionEpoch++;
+            Loading inFlight = loading.get(matchId);
+            if (inFlight != null) {
+                inFlight.evictedAt = evictionEpoch;
+            }
+            int slot = slotsByMatchId.remove(matchId);
+            if (slot != LongIntHashMap.MISSING) {
+                freeSlots[freeCount++] = slot;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        long stamp = lock.writeLock();
+        try {
+            evictedAllAt = ++evictionEpoch;
+            for (int slot = 0; slot < maximumSize; slot++) {
+                // a free slot may still hold a match id that is in another slot by now
+                if (slotsByMatchId.get(matchIds[slot]) == slot) {
+                    slotsByMatchId.remove(matchIds[slot]);
+                    freeSlots[freeCount++] = slot;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public CacheStatsDto stats() {
+        long size;
+        long stamp = lock.readLock();
+        try {
+            size = slotsByMatchId.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return new CacheStatsDto(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private VersionedOdds read(long matchId) {
+        long stamp = lock.tryOptimisticRead();
+        VersionedOdds odds = copySlot(matchId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                odds = copySlot(matchId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return odds;
+    }
+
+    private VersionedOdds copySlot(long matchId) {
+        int slot = slotsByMatchId.get(matchId);
+        if (slot == LongIntHashMap.MISSING || System.nanoTime() - writtenAt[slot] > expireAfterWriteNanos) {
+            return null;
+        }
+        return new VersionedOdds(versions[slot],
+                new CompactOdds(oddIds, slot * SPECIFIERS, odds, slot * SPECIFIERS, present[slot]));
+    }
+
+    private long startLoad(long matchId) {
+        long stamp = lock.writeLock();
+        try {
+            loading.computeIfAbsent(matchId, id -> new Loading()).count++;
+            return evictionEpoch;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the epoch of the last eviction of the match while loads of it were in flight. Called with the write
+     * lock held.
+     */
+    private long finishLoad(long matchId) {
+        Loading inFlight = loading.get(matchId);
+        if (--inFlight.count == 0) {
+            loading.remove(matchId);
+        }
+        return Math.max(inFlight.evictedAt, evictedAllAt);
+    }
+
+    private void store(long matchId, VersionedOdds loaded, long epoch) {
+        long stamp = lock.writeLock();
+        try {
+            if (finishLoad(matchId) > epoch) {
+                return;
+            }
+            int slot = slotsByMatchId.get(matchId);
+            if (slot == LongIntHashMap.MISSING) {
+                slot = allocateSlot();
+                slotsByMatchId.put(matchId, slot);
+            }
+            CompactOdds compact = (CompactOdds) loaded.odds();
+            matchIds[slot] = matchId;
+            versions[slot] = loaded.version();
+            for (int ordinal = 0; ordinal < SPECIFIERS; ordinal++) {
+                oddIds[slot * SPECIFIERS + ordinal] = compact.id(ordinal);
+                odds[slot * SPECIFIERS + ordinal] = compact.odd(ordinal);
+            }
+            present[slot] = (byte) compact.present();
+            writtenAt[slot] = System.nanoTime();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        int slot = clockHand;
+        clockHand = (clockHand + 1) % maximumSize;
+        slotsByMatchId.remove(matchIds[slot]);
+        evictions.increment();
+        return slot;
+    }
+
+    private static final class Loading {
+        private int count;
+        private long evictedAt;
+    }
+}
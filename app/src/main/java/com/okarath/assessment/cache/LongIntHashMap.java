@@ -0,0 +1,88 @@
+package com.okarath.assessment.cache;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from primitive {@code long} keys to non-negative {@code int} values, without boxing.
+ * Sized once for a maximum number of entries at a load factor of at most 0.5, it never resizes. Not thread safe.
+ */
+final class LongIntHashMap {
+
+    static final int MISSING = -1;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+    private final int maximumSize;
+    private int size;
+
+    LongIntHashMap(int maximumSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, maximumSize) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        this.maximumSize = maximumSize;
+        Arrays.fill(values, MISSING);
+    }
+
+    int get(long key) {
+        for (int i = index(key); ; i = (i + 1) & mask) {
+            int value = values[i];
+            if (value == MISSING || keys[i] == key) {
+                return value;
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        for (int i = index(key); ; i = (i + 1) & mask) {
+            if (values[i] == MISSING) {
+                if (size == maximumSize) {
+                    throw new IllegalStateException("Map is full");
+                }
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+    }
+
+    int remove(long key) {
+        int i = index(key);
+        while (values[i] != MISSING && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+        if (removed == MISSING) {
+            return MISSING;
+        }
+
+        // shift back the following entries of the probe sequence so no lookup stops at the hole
+        int gap = i;
+        for (int j = (gap + 1) & mask; values[j] != MISSING; j = (j + 1) & mask) {
+            int home = index(keys[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        values[gap] = MISSING;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int index(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,53 @@
+package com.okarath.assessment.cache;
+
+import com.okarath.assessment.dto.CacheStatsDto;
+import com.okarath.assessment.dto.VersionedOdds;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Function;
+
+/**
+ * Odds per match, kept in memory in front of the database. The implementation is selected with
+ * {@code app.cache.odds.type}: {@code caffeine} (default) or {@code compact}.
+ */
+public interface OddsCache {
+
+    /**
+     * Returns the cached odds of the match, loading them with the loader on a miss. The returned odds are immutable.
+     */
+    VersionedOdds get(Long matchId, Function<Long, VersionedOdds> loader);
+
+    void evict(Long matchId);
+
+    /**
+     * Evicts the odds of every match, for when changes may have been missed.
+     */
+    void evictAll();
+
+    CacheStatsDto stats();
+
+    /**
+     * Evicts the odds of a match now and again once the current transaction commits. The second eviction drops
+     * anything a concurrent reader loaded from the not yet committed state; implementations make sure such a load
+     * cannot put a stale value back afterwards.
+     */
+    default void evictAfterCommit(Long matchId) {
+        evict(matchId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    // run before after-commit event listeners so they never read the evicted value
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCommit() {
+                    evict(matchId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.okarath.assessment.coalescing;
+
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.dto.VersionedOdds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Latest not yet written odd value per (match, odd), for coalescing bursts of updates to the same odd into one write.
+ * <p>
+ * The values of a match live in an immutable map that is replaced on every change, so readers overlay them
+ * without locking. Entries stay visible until the transaction that wrote them commits, and are only removed if
+ * they were not overwritten in the meantime.
+ * <p>
+ * Writers claim the matches they write pending values for, and a match is owned by one transaction at a time until
+ * it completes. The flusher skips matches owned by others, synchronous writers wait for them, so an older coalesced
+ * value can never land on top of a newer synchronous write. A rolled back claim just releases the match, its values
+ * are still pending.
+ */
+@Component
+public class PendingOddsBuffer {
+
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int flushSize;
+    private final int maxSize;
+
+    private final ConcurrentHashMap<Long, Map<Long, Double>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Semaphore flushDue = new Semaphore(0);
+    // match id -> owning transaction, guarded by this
+    private final Map<Long, Object> owners = new HashMap<>();
+
+    public PendingOddsBuffer(@Value("${app.odds-coalescing.enabled:false}") boolean enabled,
+                             @Value("${app.odds-coalescing.flush-interval:100ms}") Duration flushInterval,
+                             @Value("${app.odds-coalescing.flush-size:1000}") int flushSize,
+                             @Value("${app.odds-coalescing.max-size:10000}") int maxSize) {
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.flushSize = flushSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Buffers the odd value, replacing a pending one for the same odd.
+     *
+     * @return false if coalescing is disabled or the buffer is full, the caller then writes synchronously
+     */
+    public boolean offer(Long matchId, Long oddId, double odd) {
+        if (!enabled) return false;
+
+        boolean[] accepted = {true};
+        pending.compute(matchId, (id, values) -> {
+            if (values != null && values.containsKey(oddId)) {
+                return copyWith(values, oddId, odd);
+            }
+            if (size.get() >= maxSize) {
+                accepted[0] = false;
+                return values;
+            }
+            if (size.incrementAndGet() == flushSize) {
+                flushDue.release();
+            }
+            return values == null ? Map.of(oddId, odd) : copyWith(values, oddId, odd);
+        });
+        return accepted[0];
+    }
+
+    /**
+     * Returns the odds with the pending values of the match applied.
+     */
+    public VersionedOdds overlay(Long matchId, VersionedOdds odds) {
+        Map<Long, Double> values = pending.get(matchId);
+        if (values == null) return odds;
+
+        return new VersionedOdds(odds.version(), odds.odds().stream()
+                .map(odd -> values.containsKey(odd.id()) ? new OddDto(odd.id(), odd.specifier(), values.get(odd.id())) : odd)
+                .collect(Collectors.toUnmodifiableSet()), true);
+    }
+
+    /**
+     * The pending values of all matches, keyed by match id and odd id.
+     */
+    public Map<Long, Map<Long, Double>> snapshot() {
+        return new HashMap<>(pending);
+    }
+
+    /**
+     * Claims the pending values of every match no other transaction owns, for the flusher. The matches stay owned
+     * by the current transaction until it completes.
+     */
+    public synchronized Map<Long, Map<Long, Double>> claimAll() {
+        Map<Long, Map<Long, Double>> claimed = new HashMap<>();
+        pending.forEach((matchId, values) -> {
+            if (!owners.containsKey(matchId)) claimed.put(matchId, values);
+        });
+        own(claimed.keySet());
+        return claimed;
+    }
+
+    /**
+     * Waits until no other transaction owns any of the matches, then claims their pending values for a synchronous
+     * write. The matches are claimed even without pending values, so a flush already writing them finishes first.
+     */
+    public synchronized Map<Long, Map<Long, Double>> claim(Collection<Long> matchIds) {
+        if (!enabled) return Map.of();
+
+        try {
+            while (matchIds.stream().anyMatch(owners::containsKey)) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the coalesced odds of matches " + matchIds, e);
+        }
+        Map<Long, Map<Long, Double>> claimed = new HashMap<>();
+        for (Long matchId : matchIds) {
+            Map<Long, Double> values = pending.get(matchId);
+            if (values != null) claimed.put(matchId, values);
+        }
+        own(matchIds);
+        return claimed;
+    }
+
+    /**
+     * Removes the written values once the current transaction commits, keeping those that were replaced since.
+     * Runs after the odds cache eviction, so a reader always sees either the pending or the written value.
+     */
+    public void removeAfterCommit(Map<Long, Map<Long, Double>> written) {
+        if (written.isEmpty()) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(written);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(written);
+            }
+        });
+    }
+
+    /**
+     * Blocks until the flush interval has passed or the buffer has reached the flush size.
+     */
+    public void awaitFlushDue() throws InterruptedException {
+        flushDue.tryAcquire(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        flushDue.drainPermits();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    // without a transaction there is nothing to order against, the values are still removed by the writer
+    private void own(Collection<Long> matchIds) {
+        if (matchIds.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        Object owner = new Object();
+        Set<Long> owned = Set.copyOf(matchIds);
+        owned.forEach(matchId -> owners.put(matchId, owner));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(owned, owner);
+            }
+        });
+    }
+
+    private synchronized void release(Set<Long> matchIds, Object owner) {
+        matchIds.forEach(matchId -> owners.remove(matchId, owner));
+        notifyAll();
+    }
+
+    private void remove(Map<Long, Map<Long, Double>> written) {
+        written.forEach((matchId, writtenValues) -> pending.computeIfPresent(matchId, (id, values) -> {
+            Map<Long, Double> remaining = new HashMap<>(values);
+            writtenValues.forEach((oddId, odd) -> {
+                if (remaining.remove(oddId, odd)) size.decrementAndGet();
+            });
+            return remaining.isEmpty() ? null : Map.copyOf(remaining);
+        }));
+    }
+
+    private static Map<Long, Double> copyWith(Map<Long, Double> values, Long oddId, double odd) {
+        Map<Long, Double> copy = new HashMap<>(values);
+        copy.put(oddId, odd);
+        return Map.copyOf(copy);
+    }
+}
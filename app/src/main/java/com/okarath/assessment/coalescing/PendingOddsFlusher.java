@@ -0,0 +1,65 @@
+package com.okarath.assessment.coalescing;
+
+import com.okarath.assessment.service.MatchOddsService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the coalesced odds every {@code app.odds-coalescing.flush-interval}, or as soon as
+ * {@code flush-size} odds are pending. A failed flush leaves the values pending for the next one.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "app.odds-coalescing.enabled", havingValue = "true")
+public class PendingOddsFlusher {
+
+    private final PendingOddsBuffer pendingOddsBuffer;
+    private final MatchOddsService matchOddsService;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public PendingOddsFlusher(PendingOddsBuffer pendingOddsBuffer, MatchOddsService matchOddsService) {
+        this.pendingOddsBuffer = pendingOddsBuffer;
+        this.matchOddsService = matchOddsService;
+        this.thread = new CustomizableThreadFactory("odds-coalescing-flush-").newThread(this::run);
+    }
+
+    @PostConstruct
+    public void start() {
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(30));
+        flush();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                pendingOddsBuffer.awaitFlushDue();
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (pendingOddsBuffer.size() == 0) return;
+        try {
+            matchOddsService.flushPendingOdds();
+        } catch (RuntimeException e) {
+            log.warn("Flushing {} coalesced odds failed, retrying with the next flush", pendingOddsBuffer.size(), e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.okarath.assessment.controller;
+
+import com.okarath.assessment.cache.OddsCache;
+import com.okarath.assessment.dto.CacheStatsDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/cache")
+public class CacheController {
+
+    private final OddsCache oddsCache;
+
+    public CacheController(OddsCache oddsCache) {
+        this.oddsCache = oddsCache;
+    }
+
+    @Operation(summary = "Get hit, miss and eviction counts of the match odds cache")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cache statistics retrieved")
+    })
+    @GetMapping("/odds/stats")
+    public ResponseEntity<CacheStatsDto> getOddsCacheStats() {
+        return ResponseEntity.ok(oddsCache.stats());
+    }
+}
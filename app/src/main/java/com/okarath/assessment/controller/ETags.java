@@ -0,0 +1,46 @@
+package com.okarath.assessment.controller;
+
+import com.okarath.assessment.exception.PreconditionFailedException;
+
+import java.util.List;
+
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header lists the current ETag. Uses the weak comparison required for
+     * {@code If-None-Match}, so {@code W/"3"} matches {@code "3"}.
+     */
+    static boolean isNotModified(List<String> ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return ifNoneMatch.stream()
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag));
+    }
+
+    /**
+     * The match version an {@code If-Match} header asks for, or null when the header is absent or {@code *}.
+     * If-Match uses the strong comparison, so weak or unknown tags can never match and fail with 412.
+     */
+    static Long expectedVersion(List<String> ifMatch) {
+        if (ifMatch == null || ifMatch.isEmpty()) {
+            return null;
+        }
+        if (ifMatch.size() == 1 && ifMatch.get(0).trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.size() == 1 ? ifMatch.get(0).trim() : "";
+        if (!tag.matches("\"\\d{1,18}\"")) {
+            throw new PreconditionFailedException(String.format("If-Match %s does not match the current ETag", ifMatch));
+        }
+        return Long.parseLong(tag.substring(1, tag.length() - 1));
+    }
+}
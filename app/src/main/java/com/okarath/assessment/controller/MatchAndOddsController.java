@@ -1,8 +1,16 @@
 package com.okarath.assessment.controller;
 
+import com.okarath.assessment.admission.Admission;
+import com.okarath.assessment.admission.EndpointClass;
 import com.okarath.assessment.dto.*;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.idempotency.IdempotencyKeys;
+import com.okarath.assessment.service.MatchExportService;
+import com.okarath.assessment.service.MatchImportService;
 import com.okarath.assessment.service.MatchOddsService;
 import com.okarath.assessment.service.MatchService;
+import com.okarath.assessment.stream.OddsStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,16 +18,25 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Set;
 
@@ -29,22 +46,37 @@ public class MatchAndOddsController {
 
     private final MatchService matchService;
     private final MatchOddsService matchOddsService;
+    private final OddsStreamService oddsStreamService;
+    private final MatchExportService matchExportService;
+    private final MatchImportService matchImportService;
+    private final IdempotencyKeys idempotencyKeys;
 
 
-    public MatchAndOddsController(MatchService matchService, MatchOddsService matchOddsService) {
+    public MatchAndOddsController(MatchService matchService, MatchOddsService matchOddsService, OddsStreamService oddsStreamService,
+                                  MatchExportService matchExportService, MatchImportService matchImportService,
+                                  IdempotencyKeys idempotencyKeys) {
         this.matchService = matchService;
         this.matchOddsService = matchOddsService;
+        this.oddsStreamService = oddsStreamService;
+        this.matchExportService = matchExportService;
+        this.matchImportService = matchImportService;
+        this.idempotencyKeys = idempotencyKeys;
     }
 
     @Operation(summary = "Create match")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Match created"),
-            @ApiResponse(responseCode = "400", description = "Match already exists for teamA, teamB, date and sport")
+            @ApiResponse(responseCode = "400", description = "Match already exists for teamA, teamB, date and sport"),
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key already used for a different match", content = @Content)
     })
     @PostMapping(consumes = "application/json")
+    @Admission(EndpointClass.MATCH_WRITE)
     public ResponseEntity<Void> createMatch(@Valid @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(examples = @ExampleObject(exampleMatchDto)))
-                                                @RequestBody MatchDto match) {
-        var savedMatch = matchService.save(match);
+                                                @RequestBody MatchDto match,
+                                            @Parameter(description = "Retries with the same key return the original result without creating the match again")
+                                            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        var savedMatch = idempotencyKey == null ? matchService.save(match)
+                : idempotencyKeys.execute(idempotencyKey, match, () -> matchService.save(match));
         var url = ServletUriComponentsBuilder.fromCurrentRequest()
                 .path("/{id}")
                 .build(savedMatch.id());
@@ -56,12 +88,20 @@ public class MatchAndOddsController {
             @ApiResponse(responseCode = "200", description = "Match retrieved",
                     content = { @Content(mediaType = "application/json",
                             schema = @Schema(implementation = MatchDto.class)) }),
+            @ApiResponse(responseCode = "304", description = "Match not modified since the ETag in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Match not found", content = @Content)
     })
     @GetMapping(path = "/{id}")
-    public ResponseEntity<MatchDto> getMatchById(@PathVariable Long id) {
+    @Admission(EndpointClass.POINT_READ)
+    public ResponseEntity<MatchDto> getMatchById(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) List<String> ifNoneMatch) {
+        // the version is read before the body, so the body is never older than its ETag
+        String etag = ETags.of(matchService.getVersion(id));
+        if (ETags.isNotModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         MatchDto match = matchService.findById(id);
-        return ResponseEntity.ok(match);
+        return ResponseEntity.ok().eTag(etag).body(match);
     }
 
     @Operation(summary = "Get all matches paginated")
@@ -70,20 +110,84 @@ public class MatchAndOddsController {
                     content = {@Content(mediaType = "application/json", schema = @Schema(implementation = MatchPage.class))})
     })
     @GetMapping()
+    @Admission(EndpointClass.LIST_READ)
     public ResponseEntity<MatchPage> getMatches(@ParameterObject Pageable pageable) {
         Page<MatchDto> matches = matchService.getMatches(pageable);
 
         return ResponseEntity.ok(new MatchPage(matches.getContent(), pageable, matches.getContent().size()));
     }
 
+    @Operation(summary = "Get matches ordered by date and time, continuing after a cursor",
+            description = "Pass an empty cursor for the first page and the returned nextCursor for the following ones. No total count is computed.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Match list retrieved",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = MatchCursorPage.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content)
+    })
+    @GetMapping(params = "cursor")
+    @Admission(EndpointClass.LIST_READ)
+    public ResponseEntity<MatchCursorPage> getMatchesAfter(@RequestParam String cursor,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(matchService.getMatchesAfter(cursor, size));
+    }
+
+    @Operation(summary = "Search matches by sport, date range, team and offered specifier",
+            description = "Every filter is optional. team matches either side, from and to are inclusive dates. "
+                    + "Results are ordered by date and time and paged with the nextCursor like the cursor listing.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching matches retrieved",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = MatchCursorPage.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or filter", content = @Content)
+    })
+    @GetMapping("/search")
+    @Admission(EndpointClass.LIST_READ)
+    public ResponseEntity<MatchCursorPage> searchMatches(@RequestParam(required = false) Sport sport,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                         @RequestParam(required = false) String team,
+                                                         @RequestParam(required = false) Specifier specifier,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        MatchSearchCriteria criteria = new MatchSearchCriteria(sport, from, to, team, specifier);
+        return ResponseEntity.ok(matchService.search(criteria, cursor, size));
+    }
+
+    @Operation(summary = "Export all matches with their odds",
+            description = "Newline-delimited JSON, one match per line in id order, streamed while it is read from the database")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed",
+                    content = @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = MatchDto.class)))
+    })
+    @GetMapping(path = "/export", produces = "application/x-ndjson")
+    public void exportMatches(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        matchExportService.exportMatches(response.getOutputStream());
+    }
+
+    @Operation(summary = "Import matches in bulk",
+            description = "Newline-delimited JSON, one match per line as for create. Invalid rows are skipped and reported, "
+                    + "rows of matches that exist or appear earlier in the file are counted as duplicates")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = MatchImportResultDto.class))),
+            @ApiResponse(responseCode = "400", description = "Malformed JSON, nothing was imported", content = @Content)
+    })
+    @PostMapping(path = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<MatchImportResultDto> importMatches(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(matchImportService.importMatches(request.getInputStream()));
+    }
+
     @Operation(summary = "Delete match by id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Match deleted successfully"),
-            @ApiResponse(responseCode = "404", description = "Match not found", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Match not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Match changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Match ETag does not match If-Match", content = @Content)
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteMatch(@PathVariable Long id) {
-        var deleted = matchService.delete(id);
+    @Admission(EndpointClass.MATCH_WRITE)
+    public ResponseEntity<Void> deleteMatch(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) List<String> ifMatch) {
+        var deleted = matchService.delete(id, ETags.expectedVersion(ifMatch));
         return deleted ? ResponseEntity.noContent().build()
                 : ResponseEntity.notFound().build();
     }
@@ -92,14 +196,17 @@ public class MatchAndOddsController {
     @Operation(summary = "Update match description and/or time")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Match updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Match not found", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Match not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Match changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Match ETag does not match If-Match", content = @Content)
     })
     @PatchMapping("/{id}")
-    public ResponseEntity<Void> updateMatch(@PathVariable Long id,
+    @Admission(EndpointClass.MATCH_WRITE)
+    public ResponseEntity<Void> updateMatch(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) List<String> ifMatch,
                                             @Valid @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(examples = @ExampleObject(exampleUpdateMatchDto)))
                                             @RequestBody UpdateMatchDto updateMatchDto){
 
-        matchService.updateMatch(id, updateMatchDto);
+        matchService.updateMatch(id, updateMatchDto, ETags.expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
@@ -107,9 +214,11 @@ public class MatchAndOddsController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Match odd created successfully"),
             @ApiResponse(responseCode = "400", description = "Match odd already exists for the specified specifier", content = @Content),
-            @ApiResponse(responseCode = "404", description = "Match not found", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Match not found", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Odds history is falling behind, retry later", content = @Content)
     })
     @PostMapping(path = "/{matchId}/odds", consumes = "application/json")
+    @Admission(EndpointClass.ODDS_WRITE)
     public ResponseEntity<Void> createOddForMatch(@PathVariable Long matchId,
                                                   @Valid @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(examples = @ExampleObject(exampleOddDto)))
                                                   @RequestBody OddDto oddDto){
@@ -120,39 +229,107 @@ public class MatchAndOddsController {
     @Operation(summary = "Get odds for match")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Match odds retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Odds not modified since the ETag in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Match not found", content = @Content)
     })
     @GetMapping("/{matchId}/odds")
-    public ResponseEntity<Set<OddDto>> getOddsForMatch(@PathVariable Long matchId){
-        var odds = matchOddsService.getOddsForMatch(matchId);
-        return ResponseEntity.ok(odds);
+    @Admission(EndpointClass.POINT_READ)
+    public ResponseEntity<Set<OddDto>> getOddsForMatch(@PathVariable Long matchId,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) List<String> ifNoneMatch){
+        // version and odds come from the same cached snapshot, so the ETag is safe to send back in If-Match
+        VersionedOdds odds = matchOddsService.getVersionedOddsForMatch(matchId);
+        if (odds.pending()) {
+            // coalesced values not written yet are not covered by the version, so there is no ETag to give
+            return ResponseEntity.ok(odds.odds());
+        }
+        String etag = ETags.of(odds.version());
+        if (ETags.isNotModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(odds.odds());
     }
 
-    @Operation(summary = "Update odd for match")
+    @Operation(summary = "Stream odds changes for match",
+            description = "Server-Sent Events stream that sends the current odds and then the latest odds after every change")
     @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Odds stream opened"),
+            @ApiResponse(responseCode = "404", description = "Match not found", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many open streams", content = @Content)
+    })
+    @GetMapping(path = "/{matchId}/odds/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOddsForMatch(@PathVariable Long matchId) {
+        return oddsStreamService.subscribe(matchId);
+    }
+
+    @Operation(summary = "Get the price history of the odds of a match",
+            description = "Every price change in [from, to), oldest first. The history is written asynchronously, "
+                    + "so a change can take a moment to show up")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Odds history retrieved"),
+            @ApiResponse(responseCode = "404", description = "Match not found", content = @Content)
+    })
+    @GetMapping("/{matchId}/odds/history")
+    @Admission(EndpointClass.POINT_READ)
+    public ResponseEntity<List<OddHistoryDto>> getOddsHistoryForMatch(@PathVariable Long matchId,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        return ResponseEntity.ok(matchOddsService.getOddsHistory(matchId, from, to));
+    }
+
+    @Operation(summary = "Update odd for match",
+            description = "When expectedOdd is given the odd is only updated if its current value equals expectedOdd. "
+                    + "When If-Match is given the odd is only updated if the match still has that ETag, as returned by the odds or match GET. "
+                    + "With app.odds-coalescing.enabled, unconditional updates are acknowledged with 202 and written with the next flush")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Match odd update accepted, it is written with the next coalesced flush"),
             @ApiResponse(responseCode = "204", description = "Match odd updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Match odd not found", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Match odd not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Match odd does not have the expected value", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Match ETag does not match If-Match", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Odds history is falling behind, retry later", content = @Content)
     })
     @PatchMapping("/{matchId}/odds/{oddId}")
+    @Admission(EndpointClass.ODDS_WRITE)
     public ResponseEntity<Void> updateOddForMatch(@PathVariable Long matchId, @PathVariable Long oddId,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) List<String> ifMatch,
                                                   @Valid @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(examples = @ExampleObject(exampleUpdateOddDto)))
                                                   @RequestBody UpdateOddDto oddDto) {
-        matchOddsService.updateOdd(matchId, oddId, oddDto);
+        Long expectedVersion = ETags.expectedVersion(ifMatch);
+        if (matchOddsService.bufferOdd(matchId, oddId, oddDto, expectedVersion)) {
+            return ResponseEntity.accepted().build();
+        }
+        matchOddsService.updateOdd(matchId, oddId, oddDto, expectedVersion);
         return ResponseEntity.noContent().build();
     }
 
     @Operation(summary = "Update odd for match")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Match odd deleted successfully"),
-            @ApiResponse(responseCode = "404", description = "Match odd not found", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Match odd not found", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Match ETag does not match If-Match", content = @Content)
     })
     @DeleteMapping("/{matchId}/odds/{oddId}")
-    public ResponseEntity<Void> deleteOddForMatch(@PathVariable Long matchId, @PathVariable Long oddId) {
-        var deleted = matchOddsService.delete(matchId, oddId);
+    @Admission(EndpointClass.ODDS_WRITE)
+    public ResponseEntity<Void> deleteOddForMatch(@PathVariable Long matchId, @PathVariable Long oddId,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) List<String> ifMatch) {
+        var deleted = matchOddsService.delete(matchId, oddId, ETags.expectedVersion(ifMatch));
         return deleted ? ResponseEntity.noContent().build()
                 : ResponseEntity.notFound().build();
     }
 
+    @Operation(summary = "Create or update odds for many matches in one batch")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the per item status"),
+            @ApiResponse(responseCode = "400", description = "Invalid batch", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Odds history is falling behind, retry later", content = @Content)
+    })
+    @PostMapping(path = "/odds/batch", consumes = "application/json")
+    @Admission(EndpointClass.ODDS_WRITE)
+    public ResponseEntity<List<OddUpsertResultDto>> upsertOdds(@Valid @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(examples = @ExampleObject(exampleOddsBatchDto)))
+                                                               @RequestBody OddsBatchDto oddsBatchDto) {
+        return ResponseEntity.ok(matchOddsService.upsertOdds(oddsBatchDto.odds()));
+    }
+
     private static final String exampleMatchDto = """
             {
               "date": "13/10/2025",
@@ -184,5 +361,20 @@ public class MatchAndOddsController {
             {
               "odd": 1.3
             }""";
+    private static final String exampleOddsBatchDto = """
+            {
+              "odds": [
+                {
+                  "matchId": 1,
+                  "specifier": "ONE",
+                  "odd": 1.3
+                },
+                {
+                  "matchId": 1,
+                  "specifier": "X",
+                  "odd": 3.1
+                }
+              ]
+            }""";
 
 }
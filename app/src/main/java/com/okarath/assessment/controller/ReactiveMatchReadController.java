@@ -0,0 +1,52 @@
+package com.okarath.assessment.controller;
+
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.service.MatchReadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/reactive/matches")
+@ConditionalOnProperty(name = "app.reads.reactive.enabled", havingValue = "true")
+public class ReactiveMatchReadController {
+
+    private final MatchReadService matchReadService;
+
+    public ReactiveMatchReadController(MatchReadService matchReadService) {
+        this.matchReadService = matchReadService;
+    }
+
+    @Operation(summary = "Get match by id, read over R2DBC")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Match retrieved",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = MatchDto.class)) }),
+            @ApiResponse(responseCode = "404", description = "Match not found", content = @Content)
+    })
+    @GetMapping(path = "/{id}")
+    public Mono<MatchDto> getMatchById(@PathVariable Long id) {
+        return matchReadService.findById(id);
+    }
+
+    @Operation(summary = "Get odds for match, read over R2DBC")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Match odds retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Match not found", content = @Content)
+    })
+    @GetMapping(path = "/{matchId}/odds")
+    public Mono<Set<OddDto>> getOddsForMatch(@PathVariable Long matchId) {
+        return matchReadService.getOddsForMatch(matchId);
+    }
+}
@@ -0,0 +1,9 @@
+package com.okarath.assessment.dto;
+
+public record CacheStatsDto(
+        long hitCount,
+        long missCount,
+        long evictionCount,
+        long size
+) {
+}
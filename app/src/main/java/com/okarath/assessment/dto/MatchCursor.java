@@ -0,0 +1,35 @@
+package com.okarath.assessment.dto;
+
+import com.okarath.assessment.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the (match_date, match_time, id) ordering of matches, handed to clients as an opaque token.
+ */
+public record MatchCursor(LocalDate date, LocalTime time, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = date + SEPARATOR + time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MatchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new InvalidCursorException(String.format("Invalid cursor %s", token));
+            }
+            return new MatchCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(String.format("Invalid cursor %s", token));
+        }
+    }
+}
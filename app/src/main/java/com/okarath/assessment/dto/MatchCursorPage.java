@@ -0,0 +1,9 @@
+package com.okarath.assessment.dto;
+
+import java.util.List;
+
+public record MatchCursorPage(
+        List<MatchDto> content,
+        String nextCursor
+) {
+}
@@ -0,0 +1,15 @@
+package com.okarath.assessment.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: matches created, rows skipped because the match already existed or appeared earlier
+ * in the file, and rows rejected by validation together with the first of their errors.
+ */
+public record MatchImportResultDto(
+        long imported,
+        long duplicates,
+        long rejected,
+        List<String> errors
+) {
+}
@@ -0,0 +1,14 @@
+package com.okarath.assessment.dto;
+
+import com.okarath.assessment.entity.Specifier;
+
+/**
+ * The columns of an odd with the id of its match, selected directly instead of loading the entity.
+ */
+public record MatchOddRow(
+        Long matchId,
+        Long id,
+        Specifier specifier,
+        double odd
+) {
+}
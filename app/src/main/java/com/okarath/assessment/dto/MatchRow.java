@@ -0,0 +1,20 @@
+package com.okarath.assessment.dto;
+
+import com.okarath.assessment.entity.Sport;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * The columns of a match, selected directly instead of loading the entity.
+ */
+public record MatchRow(
+        Long id,
+        LocalDate matchDate,
+        LocalTime matchTime,
+        String description,
+        String teamA,
+        String teamB,
+        Sport sport
+) {
+}
@@ -0,0 +1,19 @@
+package com.okarath.assessment.dto;
+
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+
+import java.time.LocalDate;
+
+/**
+ * Filters of the match search, each one optional. {@code team} matches either side, {@code from} and {@code to}
+ * are inclusive and {@code specifier} keeps the matches that have an odd for it.
+ */
+public record MatchSearchCriteria(
+        Sport sport,
+        LocalDate from,
+        LocalDate to,
+        String team,
+        Specifier specifier
+) {
+}
@@ -0,0 +1,12 @@
+package com.okarath.assessment.dto;
+
+import com.okarath.assessment.entity.Specifier;
+
+import java.time.Instant;
+
+public record OddHistoryDto(
+        Specifier specifier,
+        double odd,
+        Instant changedAt
+) {
+}
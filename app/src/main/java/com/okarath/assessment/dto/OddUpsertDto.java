@@ -0,0 +1,13 @@
+package com.okarath.assessment.dto;
+
+import com.okarath.assessment.entity.Specifier;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+@Builder
+public record OddUpsertDto(
+        @NotNull Long matchId,
+        @NotNull Specifier specifier,
+        @NotNull Double odd
+) {
+}
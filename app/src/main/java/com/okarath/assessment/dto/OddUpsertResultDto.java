@@ -0,0 +1,14 @@
+package com.okarath.assessment.dto;
+
+import com.okarath.assessment.entity.Specifier;
+
+public record OddUpsertResultDto(
+        Long matchId,
+        Specifier specifier,
+        Status status
+) {
+
+    public enum Status {
+        CREATED, UPDATED, NOT_FOUND, SUPERSEDED
+    }
+}
@@ -3,5 +3,10 @@ package com.okarath.assessment.dto;
 import jakarta.validation.constraints.NotNull;
 
 public record UpdateOddDto (
-    @NotNull Double odd
-){}
+    @NotNull Double odd,
+    Double expectedOdd
+){
+    public UpdateOddDto(Double odd) {
+        this(odd, null);
+    }
+}
@@ -0,0 +1,15 @@
+package com.okarath.assessment.dto;
+
+import java.util.Set;
+
+/**
+ * The odds of a match together with the match version they were read at, which is served as their ETag.
+ * {@code pending} is set when the odds include coalesced writes that are not in the database yet, so the
+ * version does not describe them.
+ */
+public record VersionedOdds(long version, Set<OddDto> odds, boolean pending) {
+
+    public VersionedOdds(long version, Set<OddDto> odds) {
+        this(version, odds, false);
+    }
+}
@@ -19,7 +19,8 @@ import java.util.Set;
 public class Match {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "matches_seq")
+    @SequenceGenerator(name = "matches_seq", sequenceName = "matches_seq", allocationSize = 50)
     private Long id;
 
     private String description;
@@ -39,6 +40,11 @@ public class Match {
     @Column(nullable = false, columnDefinition = "INTEGER")
     private Sport sport;
 
+    // bumped by every write to the match or its odds, served as the ETag of both and checked against If-Match
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @OneToMany(mappedBy = "match", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private Set<MatchOdd> odds = new HashSet<>();
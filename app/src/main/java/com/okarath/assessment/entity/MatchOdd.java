@@ -14,7 +14,8 @@ import lombok.*;
 public class MatchOdd {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "match_odds_seq")
+    @SequenceGenerator(name = "match_odds_seq", sequenceName = "match_odds_seq", allocationSize = 50)
     private long id;
 
     @ManyToOne(optional = false)
@@ -27,4 +28,8 @@ public class MatchOdd {
 
     @Column(nullable = false)
     private double odd;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
 }
@@ -0,0 +1,7 @@
+package com.okarath.assessment.event;
+
+/**
+ * Published by every write that invalidates the cached odds of a match, so the other instances can drop theirs.
+ */
+public record MatchChangedEvent(Long matchId) {
+}
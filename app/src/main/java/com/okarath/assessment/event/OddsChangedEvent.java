@@ -0,0 +1,4 @@
+package com.okarath.assessment.event;
+
+public record OddsChangedEvent(Long matchId) {
+}
@@ -0,0 +1,16 @@
+package com.okarath.assessment.exception;
+
+import java.time.Duration;
+
+public class TooManyRequestsException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,8 @@
+package com.okarath.assessment.history;
+
+import com.okarath.assessment.entity.Specifier;
+
+import java.time.Instant;
+
+public record OddsHistoryEntry(Long matchId, Specifier specifier, double odd, Instant changedAt) {
+}
@@ -0,0 +1,137 @@
+package com.okarath.assessment.history;
+
+import com.okarath.assessment.exception.ServiceUnavailableException;
+import com.okarath.assessment.repository.OddsHistoryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends odds changes to the history table off the request path.
+ * <p>
+ * Writers reserve queue capacity inside their transaction and the entries are queued after it commits, so rolled
+ * back changes never reach the history and committed ones always have room. When the queue is full the reservation
+ * fails and the write is rejected with 503 instead of dropping its history. A single background thread drains the
+ * queue and inserts whatever has piled up, up to {@code batch-size} rows, with one statement.
+ */
+@Slf4j
+@Service
+public class OddsHistoryWriter {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final OddsHistoryRepository oddsHistoryRepository;
+    private final int batchSize;
+    private final Duration retryDelay;
+    private final BlockingQueue<OddsHistoryEntry> queue;
+    private final Semaphore permits;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public OddsHistoryWriter(OddsHistoryRepository oddsHistoryRepository, MeterRegistry meterRegistry,
+                             @Value("${app.odds-history.queue-capacity:100000}") int capacity,
+                             @Value("${app.odds-history.batch-size:1000}") int batchSize,
+                             @Value("${app.odds-history.retry-delay:1s}") Duration retryDelay) {
+        this.oddsHistoryRepository = oddsHistoryRepository;
+        this.batchSize = batchSize;
+        this.retryDelay = retryDelay;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.permits = new Semaphore(capacity);
+        this.thread = new CustomizableThreadFactory("odds-history-writer-").newThread(this::run);
+        // queued plus being written, i.e. everything not yet in the table
+        Gauge.builder("odds.history.pending", permits, p -> capacity - p.availablePermits())
+                .description("Odds history entries accepted but not yet written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Queues the entries once the current transaction commits, or right away without one.
+     *
+     * @throws ServiceUnavailableException if the queue has no room for the entries
+     */
+    public void record(List<OddsHistoryEntry> entries) {
+        if (entries.isEmpty()) return;
+        if (!running || !permits.tryAcquire(entries.size())) {
+            throw new ServiceUnavailableException("Odds history is falling behind, retry later");
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            queue.addAll(entries);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    queue.addAll(entries);
+                } else {
+                    permits.release(entries.size());
+                }
+            }
+        });
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            List<OddsHistoryEntry> batch = new ArrayList<>();
+            try {
+                OddsHistoryEntry first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                log.error("Interrupted with {} odds history entries unwritten", batch.size() + queue.size());
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                permits.release(batch.size());
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.error("Stopped with {} odds history entries unwritten", queue.size());
+        }
+    }
+
+    private void write(List<OddsHistoryEntry> batch) throws InterruptedException {
+        while (true) {
+            try {
+                oddsHistoryRepository.insertAll(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Dropped {} odds history entries on shutdown, the database is unavailable", batch.size(), e);
+                    return;
+                }
+                log.warn("Writing {} odds history entries failed, retrying in {}", batch.size(), retryDelay, e);
+                Thread.sleep(retryDelay.toMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.okarath.assessment.idempotency;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.okarath.assessment.exception.ResourceConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Results of requests sent with an {@code Idempotency-Key} header, so a retry returns the original result without
+ * running the request again. Concurrent requests with the same key wait for the first one; a failed request is not
+ * remembered and can be retried. The keys live in memory and only cover retries that reach the same instance.
+ */
+@Component
+public class IdempotencyKeys {
+
+    // the action runs outside the cache, which only holds its future, so no cache lock is held while it runs
+    private final AsyncCache<String, Outcome> outcomes;
+
+    public IdempotencyKeys(@Value("${app.idempotency.maximum-size:100000}") long maximumSize,
+                           @Value("${app.idempotency.expire-after-write:24h}") Duration expireAfterWrite) {
+        this.outcomes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .buildAsync();
+    }
+
+    /**
+     * Runs the action once per key and returns its result, or the result of the first request with the key.
+     *
+     * @throws ResourceConflictException if the key was used for a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object request, Supplier<T> action) {
+        Outcome outcome = outcome(key, request, action);
+        if (!outcome.request().equals(request)) {
+            throw new ResourceConflictException(String.format("Idempotency-Key %s was already used for a different request.", key));
+        }
+        return (T) outcome.result();
+    }
+
+    private Outcome outcome(String key, Object request, Supplier<?> action) {
+        while (true) {
+            CompletableFuture<Outcome> running = new CompletableFuture<>();
+            CompletableFuture<Outcome> first = outcomes.asMap().putIfAbsent(key, running);
+            if (first != null) {
+                Outcome outcome = first.join();
+                if (outcome != null) {
+                    return outcome;
+                }
+                // the first request failed and is forgotten, try again as the first
+                continue;
+            }
+            try {
+                Outcome outcome = new Outcome(request, action.get());
+                running.complete(outcome);
+                return outcome;
+            } catch (RuntimeException | Error e) {
+                outcomes.asMap().remove(key, running);
+                // completed without an outcome rather than exceptionally, which the cache would log as a failed load
+                running.complete(null);
+                throw e;
+            }
+        }
+    }
+
+    private record Outcome(Object request, Object result) {
+    }
+}
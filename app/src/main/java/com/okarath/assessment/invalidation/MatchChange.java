@@ -0,0 +1,21 @@
+package com.okarath.assessment.invalidation;
+
+/**
+ * A match change as notified by {@link MatchChangePublisher}: the match and its version after the change,
+ * {@code -1} once it is deleted.
+ */
+record MatchChange(long matchId, long version) {
+
+    static MatchChange parse(String payload) {
+        int separator = payload.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed match change: " + payload);
+        }
+        try {
+            return new MatchChange(Long.parseLong(payload, 0, separator, 10),
+                    Long.parseLong(payload, separator + 1, payload.length(), 10));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed match change: " + payload, e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.okarath.assessment.invalidation;
+
+import com.okarath.assessment.cache.OddsCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listens on {@code app.cache.invalidation.channel} over a connection of its own, outside the pool, and evicts the
+ * cached odds of every match another instance (or this one) notifies as changed.
+ * <p>
+ * Notifications sent while the connection is down are lost, so every (re)connect evicts the whole cache. A quiet
+ * connection is checked every few seconds, so a dead one is noticed even without a socket error.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "app.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class MatchChangeListener {
+
+    private static final int POLL_TIMEOUT_MILLIS = 5000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final OddsCache oddsCache;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final Duration reconnectDelay;
+    private final Counter received;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile Connection connection;
+
+    public MatchChangeListener(OddsCache oddsCache, DataSourceProperties properties,
+                               ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                               @Value("${app.cache.invalidation.channel:match_changes}") String channel,
+                               @Value("${app.cache.invalidation.reconnect-delay:1s}") Duration reconnectDelay,
+                               MeterRegistry meterRegistry) {
+        this.oddsCache = oddsCache;
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        this.url = details != null ? details.getJdbcUrl() : properties.determineUrl();
+        this.username = details != null ? details.getUsername() : properties.determineUsername();
+        this.password = details != null ? details.getPassword() : properties.determinePassword();
+        this.channel = channel;
+        this.reconnectDelay = reconnectDelay;
+        this.received = Counter.builder("cache.invalidation.received")
+                .description("Match changes notified by any instance")
+                .register(meterRegistry);
+        this.thread = new CustomizableThreadFactory("cache-invalidation-").newThread(this::run);
+        this.thread.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        closeQuietly(connection);
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection listening = listen()) {
+                connection = listening;
+                oddsCache.evictAll();
+                PGConnection pgConnection = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null || notifications.length == 0) {
+                        if (!listening.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                            throw new SQLException("Listening connection is no longer valid");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        evict(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("Listening for match changes on {} failed, reconnecting in {}", channel, reconnectDelay, e);
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private Connection listen() throws SQLException {
+        Connection listening = DriverManager.getConnection(url, username, password);
+        try (Statement statement = listening.createStatement()) {
+            // quoted, as pg_notify takes the channel name verbatim
+            statement.execute("LISTEN \"" + channel.replace("\"", "\"\"") + "\"");
+        } catch (SQLException e) {
+            closeQuietly(listening);
+            throw e;
+        }
+        return listening;
+    }
+
+    private void evict(String payload) {
+        MatchChange change;
+        try {
+            change = MatchChange.parse(payload);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring notification on {}: {}", channel, e.getMessage());
+            return;
+        }
+        received.increment();
+        log.debug("Match {} changed, now at version {}", change.matchId(), change.version());
+        oddsCache.evict(change.matchId());
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Closing the listening connection failed", e);
+        }
+    }
+}
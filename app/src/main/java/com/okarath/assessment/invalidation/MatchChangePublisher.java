@@ -0,0 +1,82 @@
+package com.okarath.assessment.invalidation;
+
+import com.okarath.assessment.event.MatchChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sends a {@code NOTIFY} on {@code app.cache.invalidation.channel} for every changed match, with the payload
+ * {@code <matchId>:<version>} ({@code -1} once the match is deleted).
+ * <p>
+ * The changes of a transaction are collected and notified with one statement right before it commits, on the same
+ * connection and after the pending entity changes are flushed, so the payload carries the committed version.
+ * Postgres delivers the notifications only when that commit succeeds, so a rolled back change notifies no one and
+ * no instance can reload the odds before the change is visible.
+ */
+@Component
+@ConditionalOnProperty(value = "app.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class MatchChangePublisher {
+
+    private static final String NOTIFY = """
+            SELECT pg_notify(?, c.id || ':' || coalesce(m.version, -1))
+            FROM unnest(?::bigint[]) AS c(id)
+            LEFT JOIN matches m ON m.id = c.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final String channel;
+
+    public MatchChangePublisher(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                @Value("${app.cache.invalidation.channel:match_changes}") String channel) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.channel = channel;
+    }
+
+    @EventListener
+    public void onMatchChanged(MatchChangedEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            sendNotify(List.of(event.matchId()));
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.matchIds.add(event.matchId());
+    }
+
+    private void sendNotify(Collection<Long> matchIds) {
+        jdbcTemplate.query(NOTIFY, rs -> {
+        }, channel, matchIds.toArray(Long[]::new));
+    }
+
+    private class Pending implements TransactionSynchronization {
+
+        private final Set<Long> matchIds = new LinkedHashSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            entityManager.flush();
+            sendNotify(matchIds);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(MatchChangePublisher.this);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.okarath.assessment.mapper;
+
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.MatchOddRow;
+import com.okarath.assessment.dto.MatchRow;
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+public class MatchMapper {
+
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+
+    public Match toEntity(MatchDto match){
+        Match m = Match.builder()
+                .teamA(match.teamA())
+                .teamB(match.teamB())
+                .description(match.description() == null ? String.format("%s-%s", match.teamA(), match.teamB()) : match.description())
+                .matchDate(parseDate(match.date()))
+                .matchTime(parseTime(match.time()))
+                .sport(match.sport())
+                .build();
+
+        if (match.odds() != null) {
+            m.setOdds(match.odds().stream().map(odd -> MatchOdd.builder()
+                    .match(m)
+                    .specifier(odd.specifier())
+                    .odd(odd.odd())
+                    .build()).collect(Collectors.toSet()));
+        }
+
+        return m;
+    }
+
+    public MatchDto toDto(Match match) {
+        return MatchDto.builder()
+                .id(match.getId())
+                .description(match.getDescription())
+                .teamA(match.getTeamA())
+                .teamB(match.getTeamB())
+                .time(formatTime(match.getMatchTime()))
+                .date(formatDate(match.getMatchDate()))
+                .sport(match.getSport())
+                .odds(match.getOdds().stream().map(this::toDto).collect(Collectors.toSet()))
+                .build();
+    }
+
+    public MatchDto toDto(MatchRow match, Set<OddDto> odds) {
+        return MatchDto.builder()
+                .id(match.id())
+                .description(match.description())
+                .teamA(match.teamA())
+                .teamB(match.teamB())
+                .time(formatTime(match.matchTime()))
+                .date(formatDate(match.matchDate()))
+                .sport(match.sport())
+                .odds(odds)
+                .build();
+    }
+
+    public OddDto toDto(MatchOddRow odd) {
+        return new OddDto(odd.id(), odd.specifier(), odd.odd());
+    }
+
+    public OddDto toDto(MatchOdd odd) {
+        return OddDto.builder()
+                .id(odd.getId())
+                .odd(odd.getOdd())
+                .specifier(odd.getSpecifier())
+                .build();
+    }
+
+    public MatchOdd toEntity(OddDto oddDto) {
+        return MatchOdd.builder()
+                .specifier(oddDto.specifier())
+                .odd(oddDto.odd())
+                .build();
+    }
+
+    public LocalDate parseDate(String date) {
+        return LocalDate.parse(date, dateFormatter);
+    }
+
+    public String formatDate(LocalDate date) {
+        return date.format(dateFormatter);
+    }
+
+    public LocalTime parseTime(String time) {
+        return LocalTime.parse(time, timeFormatter);
+    }
+
+    public String formatTime(LocalTime time) {
+        return time.format(timeFormatter);
+    }
+}
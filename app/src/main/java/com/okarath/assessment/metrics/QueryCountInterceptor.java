@@ -0,0 +1,47 @@
+package com.okarath.assessment.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the number of Hibernate statements each request issued as {@code http.server.requests.queries},
+ * tagged like {@code http.server.requests} so the two can be read side by side.
+ */
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    static final String METRIC_NAME = "http.server.requests.queries";
+
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCountInspector.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the request thread is released for async and streaming responses, do not leave the count on it
+        QueryCountInspector.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int queries = QueryCountInspector.stop();
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(METRIC_NAME)
+                .description("Hibernate statements issued per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                .register(meterRegistry)
+                .record(queries);
+    }
+}
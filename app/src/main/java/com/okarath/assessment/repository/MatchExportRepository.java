@@ -0,0 +1,56 @@
+package com.okarath.assessment.repository;
+
+import com.okarath.assessment.dto.MatchOddRow;
+import com.okarath.assessment.dto.MatchRow;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads every match with its odds through a server-side cursor, for exports that must not hold the result in memory.
+ */
+@Repository
+public class MatchExportRepository {
+
+    private static final Sport[] SPORTS = Sport.values();
+
+    // ordered by match id so the odds of a match arrive together; both sides can be read in that order from an index
+    private static final String SELECT_ALL = """
+            SELECT m.id, m.match_date, m.match_time, m.description, m.team_a, m.team_b, m.sport,
+                   o.id AS odd_id, o.specifier, o.odd
+            FROM matches m
+            LEFT JOIN match_odds o ON o.match_id = m.id
+            ORDER BY m.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MatchExportRepository(JdbcTemplate jdbcTemplate, @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        // a copy, so the fetch size applies to the export only
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Passes every match to the consumer once per odd, or once with a null odd if it has none, grouped by match.
+     * The rows are fetched in batches of the fetch size, which PostgreSQL only does inside a transaction.
+     */
+    public void forEachMatchWithOdds(BiConsumer<MatchRow, MatchOddRow> consumer) {
+        MatchRow[] current = {null};
+        jdbcTemplate.query(SELECT_ALL, rs -> {
+            long matchId = rs.getLong(1);
+            if (current[0] == null || current[0].id() != matchId) {
+                current[0] = new MatchRow(matchId, rs.getObject(2, LocalDate.class), rs.getObject(3, LocalTime.class),
+                        rs.getString(4), rs.getString(5), rs.getString(6), SPORTS[rs.getInt(7)]);
+            }
+            long oddId = rs.getLong(8);
+            MatchOddRow odd = rs.wasNull() ? null : new MatchOddRow(matchId, oddId, Specifier.valueOf(rs.getString(9)), rs.getDouble(10));
+            consumer.accept(current[0], odd);
+        });
+    }
+}
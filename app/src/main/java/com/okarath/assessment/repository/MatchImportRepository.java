@@ -0,0 +1,138 @@
+package com.okarath.assessment.repository;
+
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Iterator;
+
+/**
+ * Bulk loads matches with {@code COPY} into a staging table and merges them into {@code matches} with one statement.
+ * Must run inside a transaction: the staging table lives until it commits.
+ */
+@Repository
+public class MatchImportRepository {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE match_import (
+               line BIGINT NOT NULL,
+               description VARCHAR(255),
+               match_date DATE NOT NULL,
+               match_time TIME WITHOUT TIME ZONE NOT NULL,
+               team_a VARCHAR(255) NOT NULL,
+               team_b VARCHAR(255) NOT NULL,
+               sport INTEGER NOT NULL,
+               specifiers VARCHAR(255)[] NOT NULL,
+               odds DOUBLE PRECISION[] NOT NULL
+            ) ON COMMIT DROP""";
+
+    private static final String COPY = """
+            COPY match_import (line, description, match_date, match_time, team_a, team_b, sport, specifiers, odds)
+            FROM STDIN WITH (FORMAT csv)""";
+
+    // duplicates are resolved set-wise: the first row per unique key wins within the file, and the unique
+    // constraint skips keys that already exist; the odds of the inserted matches go in with the same statement
+    private static final String MERGE = """
+            WITH firsts AS (
+                SELECT DISTINCT ON (team_a, team_b, sport, match_date) *
+                FROM match_import
+                ORDER BY team_a, team_b, sport, match_date, line
+            ), inserted AS (
+                INSERT INTO matches (description, match_date, match_time, team_a, team_b, sport)
+                SELECT description, match_date, match_time, team_a, team_b, sport FROM firsts
+                ON CONFLICT (team_a, team_b, sport, match_date) DO NOTHING
+                RETURNING id, team_a, team_b, sport, match_date
+            ), odds AS (
+                INSERT INTO match_odds (match_id, specifier, odd)
+                SELECT DISTINCT ON (i.id, o.specifier) i.id, o.specifier, o.odd
+                FROM inserted i
+                JOIN firsts f USING (team_a, team_b, sport, match_date)
+                CROSS JOIN LATERAL unnest(f.specifiers, f.odds) AS o(specifier, odd)
+            )
+            SELECT count(*) FROM inserted""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MatchImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Streams the matches into the staging table, consuming the iterator as it goes.
+     *
+     * @return the number of rows staged
+     */
+    public long stage(Iterator<Match> matches) {
+        jdbcTemplate.execute(CREATE_STAGING);
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            CopyIn copy = con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY);
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+                long line = 0;
+                while (matches.hasNext()) {
+                    appendRow(buffer, ++line, matches.next());
+                    if (buffer.length() >= COPY_BUFFER_SIZE) {
+                        write(copy, buffer);
+                    }
+                }
+                write(copy, buffer);
+                return copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        });
+    }
+
+    /**
+     * Inserts the staged matches that do not exist yet, with their odds.
+     *
+     * @return the number of matches inserted
+     */
+    public long merge() {
+        return jdbcTemplate.queryForObject(MERGE, Long.class);
+    }
+
+    private static void write(CopyIn copy, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private static void appendRow(StringBuilder row, long line, Match match) {
+        row.append(line).append(',');
+        appendText(row, match.getDescription()).append(',');
+        row.append(match.getMatchDate()).append(',');
+        row.append(match.getMatchTime()).append(',');
+        appendText(row, match.getTeamA()).append(',');
+        appendText(row, match.getTeamB()).append(',');
+        row.append(match.getSport().ordinal()).append(',');
+
+        // array literals, quoted as a whole because they contain commas; specifier names and numbers need no escaping
+        StringBuilder specifiers = new StringBuilder("\"{");
+        StringBuilder odds = new StringBuilder("\"{");
+        for (MatchOdd odd : match.getOdds()) {
+            if (specifiers.length() > 2) {
+                specifiers.append(',');
+                odds.append(',');
+            }
+            specifiers.append(odd.getSpecifier().name());
+            odds.append(odd.getOdd());
+        }
+        row.append(specifiers).append("}\",").append(odds).append("}\"\n");
+    }
+
+    private static StringBuilder appendText(StringBuilder row, String value) {
+        if (value == null) return row;
+        return row.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,15 @@
+package com.okarath.assessment.repository;
+
+import com.okarath.assessment.entity.Match;
+
+import java.util.Optional;
+
+public interface MatchInsertRepository {
+
+    /**
+     * Inserts the match with its odds in one statement, unless a match with the same teams, sport and date exists.
+     * Returns the inserted match with the generated ids, or an empty optional on a conflict. Concurrent inserts
+     * of the same match are resolved by the unique constraint, so exactly one of them succeeds.
+     */
+    Optional<Match> insertIfAbsent(Match match);
+}
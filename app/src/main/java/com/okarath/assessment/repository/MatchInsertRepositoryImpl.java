@@ -0,0 +1,84 @@
+package com.okarath.assessment.repository;
+
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+public class MatchInsertRepositoryImpl implements MatchInsertRepository {
+
+    // the odds are inserted from the RETURNING of the match insert, so a conflict inserts nothing and returns no row;
+    // a specifier given twice keeps one of its odds instead of failing on the odds' unique constraint
+    private static final String INSERT_IF_ABSENT = """
+            WITH inserted AS (
+                INSERT INTO matches (description, match_date, match_time, team_a, team_b, sport)
+                VALUES (?, ?, ?, ?, ?, ?)
+                ON CONFLICT (team_a, team_b, sport, match_date) DO NOTHING
+                RETURNING id
+            ), odds AS (
+                INSERT INTO match_odds (match_id, specifier, odd)
+                SELECT DISTINCT ON (o.specifier) i.id, o.specifier, o.odd
+                FROM inserted i CROSS JOIN unnest(?::varchar[], ?::float8[]) AS o(specifier, odd)
+                ORDER BY o.specifier
+                RETURNING id, match_id, specifier, odd
+            )
+            SELECT i.id, o.id, o.specifier, o.odd
+            FROM inserted i LEFT JOIN odds o ON o.match_id = i.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MatchInsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<Match> insertIfAbsent(Match match) {
+        Set<MatchOdd> odds = match.getOdds() == null ? Set.of() : match.getOdds();
+        String[] specifiers = odds.stream().map(odd -> odd.getSpecifier().name()).toArray(String[]::new);
+        Double[] values = odds.stream().map(MatchOdd::getOdd).toArray(Double[]::new);
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_IF_ABSENT);
+            ps.setString(1, match.getDescription());
+            ps.setObject(2, match.getMatchDate());
+            ps.setObject(3, match.getMatchTime());
+            ps.setString(4, match.getTeamA());
+            ps.setString(5, match.getTeamB());
+            ps.setInt(6, match.getSport().ordinal());
+            ps.setArray(7, con.createArrayOf("varchar", specifiers));
+            ps.setArray(8, con.createArrayOf("float8", values));
+            return ps;
+        }, rs -> {
+            if (!rs.next()) return Optional.empty();
+
+            Match inserted = Match.builder()
+                    .id(rs.getLong(1))
+                    .description(match.getDescription())
+                    .matchDate(match.getMatchDate())
+                    .matchTime(match.getMatchTime())
+                    .teamA(match.getTeamA())
+                    .teamB(match.getTeamB())
+                    .sport(match.getSport())
+                    .build();
+            Set<MatchOdd> insertedOdds = new HashSet<>();
+            do {
+                long oddId = rs.getLong(2);
+                if (!rs.wasNull()) {
+                    insertedOdds.add(MatchOdd.builder()
+                            .id(oddId)
+                            .match(inserted)
+                            .specifier(Specifier.valueOf(rs.getString(3)))
+                            .odd(rs.getDouble(4))
+                            .build());
+                }
+            } while (rs.next());
+            inserted.setOdds(insertedOdds);
+            return Optional.of(inserted);
+        });
+    }
+}
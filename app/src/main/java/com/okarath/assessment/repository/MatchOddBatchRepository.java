@@ -0,0 +1,43 @@
+package com.okarath.assessment.repository;
+
+import com.okarath.assessment.dto.OddUpsertDto;
+import com.okarath.assessment.entity.Specifier;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface MatchOddBatchRepository {
+
+    /**
+     * Returns the specifiers that already have an odd, keyed by match id. Matches that do not exist
+     * are absent from the result, matches without odds map to an empty set. The found matches cannot be deleted
+     * until the current transaction ends, so odds written for them in it cannot hit a missing match.
+     */
+    Map<Long, Set<Specifier>> findSpecifiersByMatchIds(Collection<Long> matchIds);
+
+    /**
+     * Inserts or updates the given odds with a single batched {@code INSERT ... ON CONFLICT} statement.
+     * The caller must not pass the same (matchId, specifier) pair twice.
+     */
+    void upsertAll(Collection<OddUpsertDto> odds);
+
+    /**
+     * Sets the odd and returns its specifier, or an empty optional if the match has no odd with that id.
+     * The specifier comes back from the same statement, so recording the change costs no extra round trip.
+     */
+    Optional<Specifier> updateOdd(Long matchId, Long oddId, double odd);
+
+    /**
+     * Like {@link #updateOdd}, but only if the current odd equals {@code expectedOdd}.
+     */
+    Optional<Specifier> compareAndSetOdd(Long matchId, Long oddId, double expectedOdd, double odd);
+
+    /**
+     * Sets many odds with one statement, in (match id, odd id) order. The values are keyed by match id and odd id;
+     * odds that no longer exist are skipped. Returns the odds that were updated.
+     */
+    List<OddUpsertDto> updateOdds(Map<Long, Map<Long, Double>> oddsByMatchId);
+}
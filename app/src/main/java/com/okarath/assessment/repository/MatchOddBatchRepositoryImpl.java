@@ -0,0 +1,116 @@
+package com.okarath.assessment.repository;
+
+import com.okarath.assessment.dto.OddUpsertDto;
+import com.okarath.assessment.entity.Specifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class MatchOddBatchRepositoryImpl implements MatchOddBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String SELECT_SPECIFIERS = """
+            SELECT m.id, o.specifier
+            FROM matches m LEFT JOIN match_odds o ON o.match_id = m.id
+            WHERE m.id = ANY (?)
+            ORDER BY m.id
+            FOR KEY SHARE OF m""";
+
+    private static final String UPSERT = """
+            INSERT INTO match_odds (match_id, specifier, odd) VALUES (?, ?, ?)
+            ON CONFLICT (match_id, specifier) DO UPDATE SET odd = EXCLUDED.odd, version = match_odds.version + 1""";
+
+    private static final String UPDATE = """
+            UPDATE match_odds SET odd = ?, version = version + 1
+            WHERE id = ? AND match_id = ?
+            RETURNING specifier""";
+
+    private static final String COMPARE_AND_SET = """
+            UPDATE match_odds SET odd = ?, version = version + 1
+            WHERE id = ? AND match_id = ? AND odd = ?
+            RETURNING specifier""";
+
+    private static final String UPDATE_MANY = """
+            UPDATE match_odds o SET odd = v.odd, version = o.version + 1
+            FROM unnest(?::bigint[], ?::bigint[], ?::float8[]) AS v(match_id, id, odd)
+            WHERE o.id = v.id AND o.match_id = v.match_id
+            RETURNING o.match_id, o.specifier, o.odd""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MatchOddBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Map<Long, Set<Specifier>> findSpecifiersByMatchIds(Collection<Long> matchIds) {
+        Map<Long, Set<Specifier>> specifiers = new HashMap<>();
+        if (matchIds.isEmpty()) return specifiers;
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_SPECIFIERS);
+            ps.setArray(1, con.createArrayOf("bigint", matchIds.toArray()));
+            return ps;
+        }, rs -> {
+            Set<Specifier> matchSpecifiers = specifiers.computeIfAbsent(rs.getLong(1), id -> EnumSet.noneOf(Specifier.class));
+            String specifier = rs.getString(2);
+            if (specifier != null) {
+                matchSpecifiers.add(Specifier.valueOf(specifier));
+            }
+        });
+        return specifiers;
+    }
+
+    @Override
+    public void upsertAll(Collection<OddUpsertDto> odds) {
+        jdbcTemplate.batchUpdate(UPSERT, odds, BATCH_SIZE, (ps, odd) -> {
+            ps.setLong(1, odd.matchId());
+            ps.setString(2, odd.specifier().name());
+            ps.setDouble(3, odd.odd());
+        });
+    }
+
+    @Override
+    public Optional<Specifier> updateOdd(Long matchId, Long oddId, double odd) {
+        return jdbcTemplate.query(UPDATE, (rs, rowNum) -> Specifier.valueOf(rs.getString(1)), odd, oddId, matchId)
+                .stream().findFirst();
+    }
+
+    @Override
+    public Optional<Specifier> compareAndSetOdd(Long matchId, Long oddId, double expectedOdd, double odd) {
+        return jdbcTemplate.query(COMPARE_AND_SET, (rs, rowNum) -> Specifier.valueOf(rs.getString(1)), odd, oddId, matchId, expectedOdd)
+                .stream().findFirst();
+    }
+
+    @Override
+    public List<OddUpsertDto> updateOdds(Map<Long, Map<Long, Double>> oddsByMatchId) {
+        List<Long> matchIds = new ArrayList<>();
+        List<Long> oddIds = new ArrayList<>();
+        List<Double> odds = new ArrayList<>();
+        // rows are locked in key order, so a flush cannot deadlock with a batch touching the same odds
+        new TreeMap<>(oddsByMatchId).forEach((matchId, values) -> new TreeMap<>(values).forEach((oddId, odd) -> {
+            matchIds.add(matchId);
+            oddIds.add(oddId);
+            odds.add(odd);
+        }));
+        if (odds.isEmpty()) return List.of();
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPDATE_MANY);
+            ps.setArray(1, con.createArrayOf("bigint", matchIds.toArray()));
+            ps.setArray(2, con.createArrayOf("bigint", oddIds.toArray()));
+            ps.setArray(3, con.createArrayOf("float8", odds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> new OddUpsertDto(rs.getLong(1), Specifier.valueOf(rs.getString(2)), rs.getDouble(3)));
+    }
+}
@@ -1,17 +1,32 @@
 package com.okarath.assessment.repository;
 
+import com.okarath.assessment.dto.MatchOddRow;
 import com.okarath.assessment.entity.Match;
 import com.okarath.assessment.entity.MatchOdd;
 import com.okarath.assessment.entity.Specifier;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
-public interface MatchOddRepository extends JpaRepository<MatchOdd, Long> {
+public interface MatchOddRepository extends JpaRepository<MatchOdd, Long>, MatchOddBatchRepository {
 
     MatchOdd save(MatchOdd matchOdd);
 
     boolean existsByMatchAndSpecifier(Match match, Specifier specifier);
 
     Set<MatchOdd> findByMatch(Match match);
+
+    boolean existsByIdAndMatchId(Long id, Long matchId);
+
+    @Query("select new com.okarath.assessment.dto.MatchOddRow(o.match.id, o.id, o.specifier, o.odd) from MatchOdd o where o.match.id in :matchIds")
+    List<MatchOddRow> findRowsByMatchIdIn(@Param("matchIds") Collection<Long> matchIds);
+
+    @Modifying
+    @Query("delete from MatchOdd o where o.match.id = :matchId and o.id = :oddId")
+    int deleteByMatchIdAndId(@Param("matchId") Long matchId, @Param("oddId") Long oddId);
 }
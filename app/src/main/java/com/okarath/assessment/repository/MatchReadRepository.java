@@ -0,0 +1,111 @@
+package com.okarath.assessment.repository;
+
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Non-blocking reads of a match and its odds over R2DBC, one round trip per lookup.
+ * Returns detached entities so the same mapper as the JPA path builds the response payloads.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.reads.reactive.enabled", havingValue = "true")
+public class MatchReadRepository {
+
+    private static final String FIND_MATCH = """
+            SELECT m.id, m.description, m.match_date, m.match_time, m.team_a, m.team_b, m.sport,
+                   o.id AS odd_id, o.specifier, o.odd
+            FROM matches m
+            LEFT JOIN match_odds o ON o.match_id = m.id
+            WHERE m.id = :id""";
+
+    private static final String FIND_ODDS = """
+            SELECT m.id, o.id AS odd_id, o.specifier, o.odd
+            FROM matches m
+            LEFT JOIN match_odds o ON o.match_id = m.id
+            WHERE m.id = :id""";
+
+    private final DatabaseClient databaseClient;
+
+    public MatchReadRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Match> findById(Long id) {
+        return databaseClient.sql(FIND_MATCH)
+                .bind("id", id)
+                .map(row -> new MatchRow(toMatch(row), toOdd(row)))
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> {
+                    Match match = rows.get(0).match();
+                    match.setOdds(collectOdds(rows.stream().map(MatchRow::odd).toList(), match));
+                    return match;
+                });
+    }
+
+    /**
+     * Emits the odds of the match, or completes empty when the match does not exist.
+     */
+    public Mono<Set<MatchOdd>> findOddsByMatchId(Long matchId) {
+        return databaseClient.sql(FIND_ODDS)
+                .bind("id", matchId)
+                .map(row -> Optional.ofNullable(toOdd(row)))
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> collectOdds(rows.stream().map(odd -> odd.orElse(null)).toList(), null));
+    }
+
+    private static Match toMatch(Readable row) {
+        return Match.builder()
+                .id(row.get("id", Long.class))
+                .description(row.get("description", String.class))
+                .matchDate(row.get("match_date", LocalDate.class))
+                .matchTime(row.get("match_time", LocalTime.class))
+                .teamA(row.get("team_a", String.class))
+                .teamB(row.get("team_b", String.class))
+                .sport(Sport.values()[row.get("sport", Integer.class)])
+                .build();
+    }
+
+    private static MatchOdd toOdd(Readable row) {
+        Long oddId = row.get("odd_id", Long.class);
+        if (oddId == null) {
+            return null;
+        }
+        return MatchOdd.builder()
+                .id(oddId)
+                .specifier(Specifier.valueOf(row.get("specifier", String.class)))
+                .odd(row.get("odd", Double.class))
+                .build();
+    }
+
+    private static Set<MatchOdd> collectOdds(List<MatchOdd> odds, Match match) {
+        Set<MatchOdd> result = new HashSet<>();
+        for (MatchOdd odd : odds) {
+            if (odd != null) {
+                odd.setMatch(match);
+                result.add(odd);
+            }
+        }
+        return result;
+    }
+
+    private record MatchRow(Match match, MatchOdd odd) {
+    }
+}
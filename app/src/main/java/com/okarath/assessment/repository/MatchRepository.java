@@ -1,22 +1,61 @@
 package com.okarath.assessment.repository;
 
 import com.okarath.assessment.entity.Match;
-import com.okarath.assessment.entity.Sport;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface MatchRepository extends JpaRepository<Match, Long> {
+public interface MatchRepository extends JpaRepository<Match, Long>, MatchSearchRepository, MatchInsertRepository {
     Match save(Match match);
 
     Optional<Match> findById(Long id);
 
+    // match row and odds in one statement, so the version and the odds come from the same snapshot
+    @EntityGraph(attributePaths = "odds")
+    Optional<Match> findWithOddsById(Long id);
+
     Page<Match> findAll(Pageable pageable);
 
-    void deleteById(Long id);
+    @Query(value = "select m.id from Match m", countQuery = "select count(m) from Match m")
+    Page<Long> findAllIds(Pageable pageable);
+
+    @EntityGraph(attributePaths = "odds")
+    List<Match> findAllByIdIn(Collection<Long> ids);
+
+    @Query(value = """
+            SELECT id FROM matches
+            ORDER BY match_date, match_time, id
+            LIMIT :limit""", nativeQuery = true)
+    List<Long> findFirstIdsInKeysetOrder(@Param("limit") int limit);
+
+    @Query(value = """
+            SELECT id FROM matches
+            WHERE (match_date, match_time, id) > (:date, :time, :id)
+            ORDER BY match_date, match_time, id
+            LIMIT :limit""", nativeQuery = true)
+    List<Long> findIdsInKeysetOrderAfter(@Param("date") LocalDate date, @Param("time") LocalTime time,
+                                         @Param("id") long id, @Param("limit") int limit);
 
-    boolean existsByTeamAAndTeamBAndSportAndMatchDate(String teamA, String teamB, Sport sport, LocalDate matchDate);
+    @Query("select m.version from Match m where m.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Match m set m.version = m.version + 1 where m.id in :ids")
+    int incrementVersions(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Match m set m.version = m.version + 1 where m.id = :id and m.version = :expectedVersion")
+    int incrementVersionIfMatches(@Param("id") Long id, @Param("expectedVersion") long expectedVersion);
+
+    void deleteById(Long id);
 }
@@ -0,0 +1,16 @@
+package com.okarath.assessment.repository;
+
+import com.okarath.assessment.dto.MatchCursor;
+import com.okarath.assessment.dto.MatchRow;
+import com.okarath.assessment.dto.MatchSearchCriteria;
+
+import java.util.List;
+
+public interface MatchSearchRepository {
+
+    /**
+     * Returns up to {@code limit} matches passing the criteria in (match_date, match_time, id) order,
+     * starting after the cursor if there is one.
+     */
+    List<MatchRow> search(MatchSearchCriteria criteria, MatchCursor after, int limit);
+}
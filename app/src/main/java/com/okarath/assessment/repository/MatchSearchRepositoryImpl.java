@@ -0,0 +1,72 @@
+package com.okarath.assessment.repository;
+
+import com.okarath.assessment.dto.MatchCursor;
+import com.okarath.assessment.dto.MatchRow;
+import com.okarath.assessment.dto.MatchSearchCriteria;
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MatchSearchRepositoryImpl implements MatchSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<MatchRow> search(MatchSearchCriteria criteria, MatchCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MatchRow> query = cb.createQuery(MatchRow.class);
+        Root<Match> match = query.from(Match.class);
+        Path<LocalDate> date = match.get("matchDate");
+        Path<LocalTime> time = match.get("matchTime");
+        Path<Long> id = match.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.sport() != null) {
+            predicates.add(cb.equal(match.get("sport"), criteria.sport()));
+        }
+        if (criteria.from() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, criteria.from()));
+        }
+        if (criteria.to() != null) {
+            predicates.add(cb.lessThanOrEqualTo(date, criteria.to()));
+        }
+        if (criteria.team() != null) {
+            predicates.add(cb.or(cb.equal(match.get("teamA"), criteria.team()), cb.equal(match.get("teamB"), criteria.team())));
+        }
+        if (criteria.specifier() != null) {
+            Subquery<Integer> odd = query.subquery(Integer.class);
+            Root<MatchOdd> matchOdd = odd.from(MatchOdd.class);
+            odd.select(cb.literal(1)).where(
+                    cb.equal(matchOdd.get("match"), match),
+                    cb.equal(matchOdd.get("specifier"), criteria.specifier()));
+            predicates.add(cb.exists(odd));
+        }
+        if (after != null) {
+            // (date, time, id) > cursor, with the leading date bound spelled out so it can be an index condition
+            predicates.add(cb.greaterThanOrEqualTo(date, after.date()));
+            predicates.add(cb.or(
+                    cb.greaterThan(date, after.date()),
+                    cb.greaterThan(time, after.time()),
+                    cb.and(cb.equal(time, after.time()), cb.greaterThan(id, after.id()))));
+        }
+
+        query.select(cb.construct(MatchRow.class, id, date, time, match.get("description"),
+                        match.get("teamA"), match.get("teamB"), match.get("sport")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(date), cb.asc(time), cb.asc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,82 @@
+package com.okarath.assessment.repository;
+
+import com.okarath.assessment.dto.OddHistoryDto;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.history.OddsHistoryEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only price history of the odds, written in batches by the history writer.
+ */
+@Repository
+public class OddsHistoryRepository {
+
+    // one multi-row insert per batch: the columns travel as arrays and unnest turns them back into rows
+    private static final String INSERT = """
+            INSERT INTO odds_history (match_id, specifier, odd, changed_at)
+            SELECT match_id, specifier, odd, changed_at::timestamptz
+            FROM unnest(?::bigint[], ?::varchar[], ?::float8[], ?::text[]) AS t(match_id, specifier, odd, changed_at)""";
+
+    private static final String FIND_BY_MATCH_ID = """
+            SELECT specifier, odd, changed_at
+            FROM odds_history
+            WHERE match_id = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OddsHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<OddsHistoryEntry> entries) {
+        Long[] matchIds = new Long[entries.size()];
+        String[] specifiers = new String[entries.size()];
+        Double[] odds = new Double[entries.size()];
+        String[] changedAt = new String[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            OddsHistoryEntry entry = entries.get(i);
+            matchIds[i] = entry.matchId();
+            specifiers[i] = entry.specifier().name();
+            odds[i] = entry.odd();
+            changedAt[i] = entry.changedAt().toString();
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT);
+            ps.setArray(1, con.createArrayOf("bigint", matchIds));
+            ps.setArray(2, con.createArrayOf("varchar", specifiers));
+            ps.setArray(3, con.createArrayOf("float8", odds));
+            ps.setArray(4, con.createArrayOf("text", changedAt));
+            return ps;
+        });
+    }
+
+    /**
+     * Returns the price changes of the match in [from, to), oldest first. A null bound is open.
+     */
+    public List<OddHistoryDto> findByMatchId(Long matchId, Instant from, Instant to) {
+        StringBuilder sql = new StringBuilder(FIND_BY_MATCH_ID);
+        List<Object> args = new ArrayList<>(List.of(matchId));
+        if (from != null) {
+            sql.append(" AND changed_at >= ?");
+            args.add(OffsetDateTime.ofInstant(from, ZoneOffset.UTC));
+        }
+        if (to != null) {
+            sql.append(" AND changed_at < ?");
+            args.add(OffsetDateTime.ofInstant(to, ZoneOffset.UTC));
+        }
+        sql.append(" ORDER BY changed_at, id");
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new OddHistoryDto(
+                Specifier.valueOf(rs.getString(1)),
+                rs.getDouble(2),
+                rs.getObject(3, OffsetDateTime.class).toInstant()), args.toArray());
+    }
+}
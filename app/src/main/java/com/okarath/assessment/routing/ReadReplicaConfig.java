@@ -0,0 +1,80 @@
+package com.okarath.assessment.routing;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the single data source with one that routes read-only transactions to the replicas in
+ * {@code app.read-replicas.urls}. The replicas use the credentials and pool settings of the primary.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(value = "app.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        if (details == null) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+        return DataSourceBuilder.create(properties.getClassLoader())
+                .type(HikariDataSource.class)
+                .url(details.getJdbcUrl())
+                .username(details.getUsername())
+                .password(details.getPassword())
+                .driverClassName(details.getDriverClassName())
+                .build();
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource,
+                                               @Value("${app.read-replicas.urls}") List<String> urls,
+                                               @Value("${app.read-replicas.max-lag:1s}") Duration maxLag,
+                                               @Value("${app.read-replicas.lag-check-interval:500ms}") Duration checkInterval,
+                                               MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            String name = "replica-" + (replicas.size() + 1);
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(url);
+            config.setPoolName(name);
+            config.setReadOnly(true);
+            // a replica that is down must not stop the application from starting, the monitor skips it
+            config.setInitializationFailTimeout(-1);
+            config.setMetricRegistry(null);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(name, new HikariDataSource(config));
+        }
+        return new ReplicaLagMonitor(replicas, maxLag, checkInterval, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor,
+                                 @Value("${app.read-replicas.read-your-writes-window:5s}") Duration readYourWritesWindow) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicaLagMonitor, readYourWritesWindow);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,79 @@
+package com.okarath.assessment.routing;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Remembers writes for the current request, and for the client through a cookie, so that its following reads are
+ * sent to the primary instead of a replica that may not have the write yet. Outside a request nothing is remembered.
+ */
+final class ReadYourWrites {
+
+    static final String COOKIE = "read-primary-until";
+
+    private static final String WROTE_ATTRIBUTE = ReadYourWrites.class.getName() + ".wrote";
+    private static final String REPLICA_ATTRIBUTE = ReadYourWrites.class.getName() + ".replica";
+
+    private ReadYourWrites() {
+    }
+
+    static void recordWrite(Duration window) {
+        ServletRequestAttributes attributes = currentAttributes();
+        if (attributes == null || attributes.getAttribute(WROTE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) return;
+
+        attributes.setAttribute(WROTE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis() + window.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(window.toSeconds(), 1));
+            response.addCookie(cookie);
+        }
+    }
+
+    static boolean requiresPrimary() {
+        ServletRequestAttributes attributes = currentAttributes();
+        if (attributes == null) return false;
+        if (attributes.getAttribute(WROTE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) return true;
+
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getCookies() == null) return false;
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The replica picked by the first read of the request, so all reads of a request see the same snapshot.
+     */
+    static Object replicaForRequest(Supplier<Object> pick) {
+        ServletRequestAttributes attributes = currentAttributes();
+        if (attributes == null) return pick.get();
+
+        Object replica = attributes.getAttribute(REPLICA_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (replica == null) {
+            replica = pick.get();
+            attributes.setAttribute(REPLICA_ATTRIBUTE, replica, RequestAttributes.SCOPE_REQUEST);
+        }
+        return replica;
+    }
+
+    private static ServletRequestAttributes currentAttributes() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes ? attributes : null;
+    }
+}
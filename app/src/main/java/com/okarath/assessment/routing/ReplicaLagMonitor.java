@@ -0,0 +1,143 @@
+package com.okarath.assessment.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how far each replica is behind the primary and offers only those within {@code max-lag} for reads.
+ * A replica counts as lagging until its first successful check and whenever a check fails.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_STATE = """
+            SELECT pg_is_in_recovery(),
+                pg_last_wal_receive_lsn() IS NOT DISTINCT FROM pg_last_wal_replay_lsn(),
+                EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming'),
+                EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())""";
+
+    private final Map<String, DataSource> replicas;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Thread thread;
+    private volatile List<String> current = List.of();
+    private volatile boolean running = true;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, Duration maxLag, Duration checkInterval, MeterRegistry meterRegistry) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.thread = new CustomizableThreadFactory("replica-lag-").newThread(this::run);
+        this.thread.setDaemon(true);
+        replicas.keySet().forEach(name -> Gauge.builder("db.replica.lag", lagSeconds, lags -> lags.getOrDefault(name, Double.NaN))
+                .description("Seconds the replica is behind the primary, NaN while it cannot be reached")
+                .baseUnit("seconds")
+                .tag("replica", name)
+                .register(meterRegistry));
+    }
+
+    @PostConstruct
+    public void start() {
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof Closeable pool) {
+                pool.close();
+            }
+        }
+    }
+
+    public Map<String, DataSource> replicas() {
+        return replicas;
+    }
+
+    /**
+     * A replica within the allowed lag, round robin, or empty if there is none.
+     */
+    public Optional<String> pickReplica() {
+        List<String> candidates = current;
+        if (candidates.isEmpty()) return Optional.empty();
+        return Optional.of(candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())));
+    }
+
+    public List<String> currentReplicas() {
+        return current;
+    }
+
+    void check() {
+        List<String> withinLag = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> {
+            try {
+                LagState state = new JdbcTemplate(dataSource).queryForObject(LAG_STATE, (rs, row) -> {
+                    double replayAge = rs.getDouble(4);
+                    return new LagState(rs.getBoolean(1), rs.getBoolean(2), rs.getBoolean(3), rs.wasNull() ? null : replayAge);
+                });
+                double lag = lagSeconds(state);
+                lagSeconds.put(name, lag);
+                if (lag <= maxLag.toMillis() / 1000.0) {
+                    withinLag.add(name);
+                }
+            } catch (RuntimeException e) {
+                lagSeconds.remove(name);
+                log.warn("Checking the lag of replica {} failed, reading from the others", name, e);
+            }
+        });
+        if (!withinLag.equals(current)) {
+            log.info("Replicas within {} of the primary: {}", maxLag, withinLag);
+        }
+        current = List.copyOf(withinLag);
+    }
+
+    /**
+     * Seconds the replica is behind the primary. A server that is not in recovery has nothing to replay. A standby
+     * that has replayed everything it received is current only while its WAL receiver is streaming: a disconnected
+     * receiver leaves both positions equal while the primary moves on, so it is judged by the age of its last
+     * replayed transaction instead. Its status is only visible to roles with {@code pg_read_all_stats}; without it
+     * every standby is judged by that age.
+     */
+    static double lagSeconds(LagState state) {
+        if (!state.inRecovery()) return 0;
+        if (state.caughtUp() && state.streaming()) return 0;
+        return state.replayAgeSeconds() == null ? Double.POSITIVE_INFINITY : state.replayAgeSeconds();
+    }
+
+    record LagState(boolean inRecovery, boolean caughtUp, boolean streaming, Double replayAgeSeconds) {
+    }
+
+    private void run() {
+        while (running) {
+            check();
+            try {
+                Thread.sleep(checkInterval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.okarath.assessment.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to a replica that is within the allowed lag and everything else to the primary.
+ * Reads of a request or client that wrote recently stay on the primary. Must be used behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the connection is chosen at the
+ * first statement, once the transaction has been marked read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final Duration readYourWritesWindow;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaLagMonitor replicaLagMonitor, Duration readYourWritesWindow) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.readYourWritesWindow = readYourWritesWindow;
+
+        Map<Object, Object> targets = new HashMap<>(replicaLagMonitor.replicas());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReadYourWrites.recordWrite(readYourWritesWindow);
+            }
+            return PRIMARY;
+        }
+        if (ReadYourWrites.requiresPrimary()) {
+            return PRIMARY;
+        }
+        return ReadYourWrites.replicaForRequest(() -> replicaLagMonitor.pickReplica().orElse(PRIMARY));
+    }
+}
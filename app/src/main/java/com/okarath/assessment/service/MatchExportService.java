@@ -0,0 +1,12 @@
+package com.okarath.assessment.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface MatchExportService {
+
+    /**
+     * Writes every match with its odds to the stream as newline-delimited JSON, one {@code MatchDto} per line.
+     */
+    void exportMatches(OutputStream out) throws IOException;
+}
@@ -0,0 +1,15 @@
+package com.okarath.assessment.service;
+
+import com.okarath.assessment.dto.MatchImportResultDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface MatchImportService {
+
+    /**
+     * Creates the matches of a newline-delimited JSON stream of {@code MatchDto} rows, validated like a single
+     * create. Invalid rows are reported and skipped, rows of matches that already exist are skipped.
+     */
+    MatchImportResultDto importMatches(InputStream in) throws IOException;
+}
@@ -1,8 +1,14 @@
 package com.okarath.assessment.service;
 
 import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.dto.OddHistoryDto;
+import com.okarath.assessment.dto.OddUpsertDto;
+import com.okarath.assessment.dto.OddUpsertResultDto;
 import com.okarath.assessment.dto.UpdateOddDto;
+import com.okarath.assessment.dto.VersionedOdds;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Set;
 
 public interface MatchOddsService {
@@ -10,7 +16,33 @@ public interface MatchOddsService {
 
     Set<OddDto> getOddsForMatch(Long matchId);
 
-    void updateOdd(Long matchId, Long oddId, UpdateOddDto oddDto);
+    VersionedOdds getVersionedOddsForMatch(Long matchId);
 
-    boolean delete(Long matchId, Long oddId);
+    /**
+     * @param expectedVersion the match version from If-Match, or null to update unconditionally
+     */
+    void updateOdd(Long matchId, Long oddId, UpdateOddDto oddDto, Long expectedVersion);
+
+    /**
+     * Buffers an unconditional odd update to be written with the next coalesced flush.
+     *
+     * @return false if the update is conditional, coalescing is disabled or the buffer is full; the caller then
+     * writes it with {@link #updateOdd}
+     */
+    boolean bufferOdd(Long matchId, Long oddId, UpdateOddDto oddDto, Long expectedVersion);
+
+    /**
+     * Writes all buffered odd updates in one statement.
+     */
+    void flushPendingOdds();
+
+    boolean delete(Long matchId, Long oddId, Long expectedVersion);
+
+    List<OddUpsertResultDto> upsertOdds(List<OddUpsertDto> odds);
+
+    /**
+     * Price changes of the match in [from, to), oldest first. Written asynchronously, so the latest
+     * changes may show up with a short delay.
+     */
+    List<OddHistoryDto> getOddsHistory(Long matchId, Instant from, Instant to);
 }
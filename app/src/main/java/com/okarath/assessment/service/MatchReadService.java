@@ -0,0 +1,14 @@
+package com.okarath.assessment.service;
+
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.OddDto;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+public interface MatchReadService {
+
+    Mono<MatchDto> findById(Long id);
+
+    Mono<Set<OddDto>> getOddsForMatch(Long matchId);
+}
@@ -1,6 +1,8 @@
 package com.okarath.assessment.service;
 
+import com.okarath.assessment.dto.MatchCursorPage;
 import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.MatchSearchCriteria;
 import com.okarath.assessment.dto.UpdateMatchDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -10,9 +12,18 @@ public interface MatchService {
 
     MatchDto findById(long id);
 
+    long getVersion(Long id);
+
     Page<MatchDto> getMatches(Pageable pageable);
 
-    boolean delete(Long id);
+    MatchCursorPage getMatchesAfter(String cursor, int size);
+
+    MatchCursorPage search(MatchSearchCriteria criteria, String cursor, int size);
+
+    /**
+     * @param expectedVersion the match version from If-Match, or null to delete unconditionally
+     */
+    boolean delete(Long id, Long expectedVersion);
 
-    void updateMatch(Long id, UpdateMatchDto updateMatchDto);
+    void updateMatch(Long id, UpdateMatchDto updateMatchDto, Long expectedVersion);
 }
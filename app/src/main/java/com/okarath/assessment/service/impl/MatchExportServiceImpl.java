@@ -0,0 +1,82 @@
+package com.okarath.assessment.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okarath.assessment.dto.MatchOddRow;
+import com.okarath.assessment.dto.MatchRow;
+import com.okarath.assessment.mapper.MatchMapper;
+import com.okarath.assessment.repository.MatchExportRepository;
+import com.okarath.assessment.service.MatchExportService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@Service
+public class MatchExportServiceImpl implements MatchExportService {
+
+    private final MatchExportRepository matchExportRepository;
+    private final ObjectMapper objectMapper;
+    private final MatchMapper matchMapper;
+
+    public MatchExportServiceImpl(MatchExportRepository matchExportRepository, ObjectMapper objectMapper, MatchMapper matchMapper) {
+        this.matchExportRepository = matchExportRepository;
+        this.objectMapper = objectMapper;
+        this.matchMapper = matchMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportMatches(OutputStream out) throws IOException {
+        // each row is written as it is read, so memory use does not grow with the number of matches
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            // lines are ended by endMatch, not by the default space between root values
+            json.setRootValueSeparator(null);
+            MatchRow[] open = {null};
+            matchExportRepository.forEachMatchWithOdds((match, odd) -> {
+                try {
+                    if (match != open[0]) {
+                        if (open[0] != null) endMatch(json);
+                        startMatch(json, match);
+                        open[0] = match;
+                    }
+                    if (odd != null) writeOdd(json, odd);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (open[0] != null) endMatch(json);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void startMatch(JsonGenerator json, MatchRow match) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", match.id());
+        json.writeStringField("date", matchMapper.formatDate(match.matchDate()));
+        json.writeStringField("time", matchMapper.formatTime(match.matchTime()));
+        json.writeStringField("description", match.description());
+        json.writeStringField("teamA", match.teamA());
+        json.writeStringField("teamB", match.teamB());
+        json.writeStringField("sport", match.sport().name());
+        json.writeArrayFieldStart("odds");
+    }
+
+    private void writeOdd(JsonGenerator json, MatchOddRow odd) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", odd.id());
+        json.writeStringField("specifier", odd.specifier().name());
+        json.writeNumberField("odd", odd.odd());
+        json.writeEndObject();
+    }
+
+    private void endMatch(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+}
@@ -0,0 +1,142 @@
+package com.okarath.assessment.service.impl;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.MatchImportResultDto;
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.exception.InvalidImportException;
+import com.okarath.assessment.mapper.MatchMapper;
+import com.okarath.assessment.repository.MatchImportRepository;
+import com.okarath.assessment.service.MatchImportService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+public class MatchImportServiceImpl implements MatchImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final MatchImportRepository matchImportRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MatchMapper matchMapper;
+
+    public MatchImportServiceImpl(MatchImportRepository matchImportRepository, ObjectMapper objectMapper, Validator validator,
+                                  MatchMapper matchMapper) {
+        this.matchImportRepository = matchImportRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.matchMapper = matchMapper;
+    }
+
+    @Override
+    @Transactional
+    public MatchImportResultDto importMatches(InputStream in) throws IOException {
+        try (MappingIterator<MatchDto> rows = objectMapper.readerFor(MatchDto.class).readValues(in)) {
+            ValidRows valid = new ValidRows(rows);
+            long staged;
+            try {
+                staged = matchImportRepository.stage(valid);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            long imported = matchImportRepository.merge();
+            return new MatchImportResultDto(imported, staged - imported, valid.rejected, List.copyOf(valid.errors));
+        } catch (JsonParseException e) {
+            throw new InvalidImportException(String.format("Malformed JSON at line %s: %s",
+                    e.getLocation().getLineNr(), e.getOriginalMessage()));
+        }
+    }
+
+    /**
+     * Parses, validates and converts the rows one at a time while the repository copies them, so the file is never
+     * held in memory. Rejected rows are counted and the first errors kept for the response.
+     */
+    private class ValidRows implements Iterator<Match> {
+
+        private final MappingIterator<MatchDto> rows;
+        private final List<String> errors = new ArrayList<>();
+        private long row;
+        private long rejected;
+        private Match next;
+
+        private ValidRows(MappingIterator<MatchDto> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null && rows.hasNextValue()) {
+                    row++;
+                    next = nextValid().orElse(null);
+                }
+                return next != null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Match next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Match match = next;
+            next = null;
+            return match;
+        }
+
+        private Optional<Match> nextValid() throws IOException {
+            MatchDto dto;
+            try {
+                dto = rows.nextValue();
+            } catch (DatabindException e) {
+                // the iterator skips to the next row after a value that does not map
+                return reject(e.getOriginalMessage());
+            }
+
+            // the validator throws on null instead of reporting a violation
+            if (dto == null) {
+                return reject("Row must be a match");
+            }
+            Set<ConstraintViolation<MatchDto>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                return reject(violations.iterator().next().getMessage());
+            }
+            if (dto.date() == null || dto.time() == null) {
+                return reject("Date and time are required");
+            }
+            if (dto.odds() != null && dto.odds().stream().anyMatch(odd -> odd == null || !validator.validate(odd).isEmpty())) {
+                return reject("Odds need a specifier and an odd");
+            }
+            try {
+                return Optional.of(matchMapper.toEntity(dto));
+            } catch (DateTimeParseException e) {
+                return reject(String.format("Invalid date or time %s %s", dto.date(), dto.time()));
+            }
+        }
+
+        private Optional<Match> reject(String error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(String.format("Row %s: %s", row, error));
+            }
+            return Optional.empty();
+        }
+    }
+}
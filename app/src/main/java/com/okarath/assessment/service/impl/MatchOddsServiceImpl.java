@@ -1,17 +1,41 @@
 package com.okarath.assessment.service.impl;
 
+import com.okarath.assessment.cache.OddsCache;
+import com.okarath.assessment.coalescing.PendingOddsBuffer;
 import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.dto.OddHistoryDto;
+import com.okarath.assessment.dto.OddUpsertDto;
+import com.okarath.assessment.dto.OddUpsertResultDto;
 import com.okarath.assessment.dto.UpdateOddDto;
+import com.okarath.assessment.dto.VersionedOdds;
 import com.okarath.assessment.entity.Match;
 import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.event.MatchChangedEvent;
+import com.okarath.assessment.event.OddsChangedEvent;
+import com.okarath.assessment.exception.ResourceConflictException;
 import com.okarath.assessment.exception.ResourceNotFoundException;
+import com.okarath.assessment.exception.PreconditionFailedException;
 import com.okarath.assessment.exception.ResourceAlreadyExistsException;
+import com.okarath.assessment.history.OddsHistoryEntry;
+import com.okarath.assessment.history.OddsHistoryWriter;
+import com.okarath.assessment.mapper.MatchMapper;
 import com.okarath.assessment.repository.MatchOddRepository;
 import com.okarath.assessment.repository.MatchRepository;
+import com.okarath.assessment.repository.OddsHistoryRepository;
 import com.okarath.assessment.service.MatchOddsService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -21,15 +45,34 @@ import static java.util.Optional.ofNullable;
 @Service
 public class MatchOddsServiceImpl implements MatchOddsService {
 
+    private static final Comparator<OddUpsertDto> UPSERT_ORDER =
+            Comparator.comparing(OddUpsertDto::matchId).thenComparing(OddUpsertDto::specifier);
+
     private final MatchRepository matchRepository;
     private final MatchOddRepository matchOddRepository;
+    private final OddsCache oddsCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OddsHistoryWriter oddsHistoryWriter;
+    private final OddsHistoryRepository oddsHistoryRepository;
+    private final PendingOddsBuffer pendingOddsBuffer;
+    private final MatchMapper matchMapper;
 
-    public MatchOddsServiceImpl(MatchRepository matchRepository, MatchOddRepository matchOddRepository) {
+    public MatchOddsServiceImpl(MatchRepository matchRepository, MatchOddRepository matchOddRepository, OddsCache oddsCache,
+                                ApplicationEventPublisher eventPublisher, OddsHistoryWriter oddsHistoryWriter,
+                                OddsHistoryRepository oddsHistoryRepository, PendingOddsBuffer pendingOddsBuffer,
+                                MatchMapper matchMapper) {
         this.matchRepository = matchRepository;
         this.matchOddRepository = matchOddRepository;
+        this.oddsCache = oddsCache;
+        this.eventPublisher = eventPublisher;
+        this.oddsHistoryWriter = oddsHistoryWriter;
+        this.oddsHistoryRepository = oddsHistoryRepository;
+        this.pendingOddsBuffer = pendingOddsBuffer;
+        this.matchMapper = matchMapper;
     }
 
     @Override
+    @Transactional
     public OddDto createOddForMatch(Long matchId, OddDto oddDto) {
         Match match = matchRepository.findById(matchId)
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Match with id %s not found", matchId)));
@@ -38,66 +81,183 @@ public class MatchOddsServiceImpl implements MatchOddsService {
             throw new ResourceAlreadyExistsException(String.format("Odd for specifier %s already exists for match with id %s", oddDto.specifier(), match.getId() ));
         }
 
-        MatchOdd odd = convertToEntity(oddDto);
+        MatchOdd odd = matchMapper.toEntity(oddDto);
         odd.setMatch(match);
 
         var savedOdd = matchOddRepository.save(odd);
+        oddsChanged(matchId);
+        oddsHistoryWriter.record(List.of(new OddsHistoryEntry(matchId, savedOdd.getSpecifier(), savedOdd.getOdd(), Instant.now())));
 
-        return convertToDto(savedOdd);
+        return matchMapper.toDto(savedOdd);
     }
 
     @Override
     public Set<OddDto> getOddsForMatch(Long matchId) {
-        Match match = matchRepository.findById(matchId)
+        return getVersionedOddsForMatch(matchId).odds();
+    }
+
+    @Override
+    public VersionedOdds getVersionedOddsForMatch(Long matchId) {
+        return pendingOddsBuffer.overlay(matchId, oddsCache.get(matchId, this::loadOddsForMatch));
+    }
+
+    private VersionedOdds loadOddsForMatch(Long matchId) {
+        Match match = matchRepository.findWithOddsById(matchId)
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Match with id %s not found", matchId)));
         ofNullable(match.getOdds()).ifPresentOrElse(it -> {},
                 () -> match.setOdds(new HashSet<>()));
-        return match.getOdds().stream().map(this::convertToDto).collect(Collectors.toSet());
+        return new VersionedOdds(match.getVersion(),
+                match.getOdds().stream().map(matchMapper::toDto).collect(Collectors.toSet()));
     }
 
     @Override
-    public void updateOdd(Long matchId, Long oddId, UpdateOddDto oddDto) {
-        Match match = matchRepository.findById(matchId)
-                .orElseThrow(() -> new ResourceNotFoundException(String.format("Match with id %s not found", matchId)));
+    public boolean bufferOdd(Long matchId, Long oddId, UpdateOddDto oddDto, Long expectedVersion) {
+        // conditional writes need the current value, so they are never coalesced
+        if (!pendingOddsBuffer.isEnabled() || expectedVersion != null || oddDto.expectedOdd() != null) return false;
 
-        matchOddRepository.findByMatch(match).stream()
-                .filter(odd -> odd.getId() == oddId)
-                .findAny()
-                .ifPresentOrElse(existingOdd -> {
-                    existingOdd.setOdd(oddDto.odd());
-                    matchOddRepository.save(existingOdd);
-                },() -> {
-                    throw new ResourceNotFoundException(String.format("No odd with id %s for matchId %s found", oddId, matchId));
-                });
+        boolean exists = oddsCache.get(matchId, this::loadOddsForMatch).odds().stream().anyMatch(odd -> odd.id().equals(oddId));
+        if (!exists) {
+            throw new ResourceNotFoundException(String.format("No odd with id %s for matchId %s found", oddId, matchId));
+        }
+        return pendingOddsBuffer.offer(matchId, oddId, oddDto.odd());
     }
 
     @Override
-    public boolean delete(Long matchId, Long oddId) {
-        Optional<Match> matchOpt = matchRepository.findById(matchId);
-        if (matchOpt.isEmpty()) return false;
+    @Transactional
+    public void flushPendingOdds() {
+        writePendingOdds(pendingOddsBuffer.claimAll());
+    }
 
-        Optional<MatchOdd> oddOpt = matchOddRepository.findByMatch(matchOpt.get()).stream()
-                .filter(odd -> odd.getId() == oddId)
-                .findAny();
+    @Override
+    @Transactional
+    public void updateOdd(Long matchId, Long oddId, UpdateOddDto oddDto, Long expectedVersion) {
+        // pending values were acknowledged before this write, so they must not land on top of it later
+        writePendingOdds(pendingOddsBuffer.claim(List.of(matchId)));
+
+        Optional<Specifier> updated = oddDto.expectedOdd() == null
+                ? matchOddRepository.updateOdd(matchId, oddId, oddDto.odd())
+                : matchOddRepository.compareAndSetOdd(matchId, oddId, oddDto.expectedOdd(), oddDto.odd());
+
+        if (updated.isEmpty()) {
+            if (oddDto.expectedOdd() != null && matchOddRepository.existsByIdAndMatchId(oddId, matchId)) {
+                throw new ResourceConflictException(String.format("Odd with id %s for matchId %s is not %s", oddId, matchId, oddDto.expectedOdd()));
+            }
+            throw new ResourceNotFoundException(String.format("No odd with id %s for matchId %s found", oddId, matchId));
+        }
+        oddsChanged(matchId, expectedVersion);
+        // stamped after the row lock is taken, so changes of the same odd are stamped in commit order
+        oddsHistoryWriter.record(List.of(new OddsHistoryEntry(matchId, updated.get(), oddDto.odd(), Instant.now())));
+    }
 
-        if (oddOpt.isEmpty()) return false;
+    @Override
+    @Transactional
+    public boolean delete(Long matchId, Long oddId, Long expectedVersion) {
+        if (matchOddRepository.deleteByMatchIdAndId(matchId, oddId) == 0) return false;
 
-        matchOddRepository.delete(oddOpt.get());
+        oddsChanged(matchId, expectedVersion);
         return true;
     }
 
-    private OddDto convertToDto(MatchOdd odd) {
-        return OddDto.builder()
-                .id(odd.getId())
-                .odd(odd.getOdd())
-                .specifier(odd.getSpecifier())
-                .build();
+    @Override
+    @Transactional
+    public List<OddUpsertResultDto> upsertOdds(List<OddUpsertDto> odds) {
+        writePendingOdds(pendingOddsBuffer.claim(odds.stream().map(OddUpsertDto::matchId).collect(Collectors.toSet())));
+        // the found matches stay locked against deletion, so the upsert below cannot run into a missing match
+        Map<Long, Set<Specifier>> existingSpecifiers = matchOddRepository.findSpecifiersByMatchIds(
+                odds.stream().map(OddUpsertDto::matchId).collect(Collectors.toSet()));
+
+        // the last occurrence of a (matchId, specifier) pair wins, earlier ones are reported as superseded
+        Map<OddKey, Integer> lastIndexByKey = new HashMap<>();
+        for (int i = 0; i < odds.size(); i++) {
+            lastIndexByKey.put(new OddKey(odds.get(i).matchId(), odds.get(i).specifier()), i);
+        }
+
+        List<OddUpsertResultDto> results = new ArrayList<>(odds.size());
+        List<OddUpsertDto> toWrite = new ArrayList<>(lastIndexByKey.size());
+        for (int i = 0; i < odds.size(); i++) {
+            OddUpsertDto odd = odds.get(i);
+            Set<Specifier> specifiers = existingSpecifiers.get(odd.matchId());
+            OddUpsertResultDto.Status status;
+            if (specifiers == null) {
+                status = OddUpsertResultDto.Status.NOT_FOUND;
+            } else if (lastIndexByKey.get(new OddKey(odd.matchId(), odd.specifier())) != i) {
+                status = OddUpsertResultDto.Status.SUPERSEDED;
+            } else {
+                status = specifiers.contains(odd.specifier()) ? OddUpsertResultDto.Status.UPDATED : OddUpsertResultDto.Status.CREATED;
+                toWrite.add(odd);
+            }
+            results.add(new OddUpsertResultDto(odd.matchId(), odd.specifier(), status));
+        }
+
+        if (!toWrite.isEmpty()) {
+            // rows are locked in key order, so overlapping batches cannot deadlock on each other
+            toWrite.sort(UPSERT_ORDER);
+            matchOddRepository.upsertAll(toWrite);
+            oddsChanged(toWrite.stream().map(OddUpsertDto::matchId).collect(Collectors.toSet()));
+            Instant changedAt = Instant.now();
+            oddsHistoryWriter.record(toWrite.stream()
+                    .map(odd -> new OddsHistoryEntry(odd.matchId(), odd.specifier(), odd.odd(), changedAt))
+                    .toList());
+        }
+        return results;
+    }
+
+    @Override
+    public List<OddHistoryDto> getOddsHistory(Long matchId, Instant from, Instant to) {
+        List<OddHistoryDto> history = oddsHistoryRepository.findByMatchId(matchId, from, to);
+        // the history outlives the match, only an empty result needs to tell the two apart
+        if (history.isEmpty() && !matchRepository.existsById(matchId)) {
+            throw new ResourceNotFoundException(String.format("Match with id %s not found", matchId));
+        }
+        return history;
+    }
+
+    private void writePendingOdds(Map<Long, Map<Long, Double>> pending) {
+        if (pending.isEmpty()) return;
+
+        List<OddUpsertDto> written = matchOddRepository.updateOdds(pending);
+        if (!written.isEmpty()) {
+            oddsChanged(written.stream().map(OddUpsertDto::matchId).collect(Collectors.toSet()));
+            Instant changedAt = Instant.now();
+            oddsHistoryWriter.record(written.stream()
+                    .map(odd -> new OddsHistoryEntry(odd.matchId(), odd.specifier(), odd.odd(), changedAt))
+                    .toList());
+        }
+        // values of odds deleted in the meantime are dropped along with the written ones
+        pendingOddsBuffer.removeAfterCommit(pending);
+    }
+
+    private void oddsChanged(Long matchId) {
+        oddsChanged(List.of(matchId));
+    }
+
+    private void oddsChanged(Collection<Long> matchIds) {
+        List<Long> sortedIds = matchIds.stream().sorted().toList();
+        matchRepository.incrementVersions(sortedIds);
+        sortedIds.forEach(this::notifyOddsChanged);
+    }
+
+    /**
+     * Bumps the match version only if it is still the expected one. The odd row is written first, as on the
+     * unconditional path, so both paths lock rows in the same order; a mismatch rolls the odd write back.
+     */
+    private void oddsChanged(Long matchId, Long expectedVersion) {
+        if (expectedVersion == null) {
+            oddsChanged(matchId);
+            return;
+        }
+        if (matchRepository.incrementVersionIfMatches(matchId, expectedVersion) == 0) {
+            throw new PreconditionFailedException(String.format("Match with id %s is no longer at version %s", matchId, expectedVersion));
+        }
+        notifyOddsChanged(matchId);
+    }
+
+    private void notifyOddsChanged(Long matchId) {
+        oddsCache.evictAfterCommit(matchId);
+        eventPublisher.publishEvent(new OddsChangedEvent(matchId));
+        eventPublisher.publishEvent(new MatchChangedEvent(matchId));
     }
 
-    private MatchOdd convertToEntity(OddDto oddDto) {
-        return MatchOdd.builder()
-                .specifier(oddDto.specifier())
-                .odd(oddDto.odd())
-                .build();
+    private record OddKey(Long matchId, Specifier specifier) {
     }
 }
@@ -1,21 +1,38 @@
 package com.okarath.assessment.service.impl;
 
+import com.okarath.assessment.cache.OddsCache;
+import com.okarath.assessment.dto.MatchCursor;
+import com.okarath.assessment.dto.MatchCursorPage;
 import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.MatchOddRow;
+import com.okarath.assessment.dto.MatchRow;
+import com.okarath.assessment.dto.MatchSearchCriteria;
 import com.okarath.assessment.dto.OddDto;
 import com.okarath.assessment.dto.UpdateMatchDto;
 import com.okarath.assessment.entity.Match;
-import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.event.MatchChangedEvent;
+import com.okarath.assessment.event.OddsChangedEvent;
+import com.okarath.assessment.exception.PreconditionFailedException;
 import com.okarath.assessment.exception.ResourceAlreadyExistsException;
+import com.okarath.assessment.exception.ResourceConflictException;
 import com.okarath.assessment.exception.ResourceNotFoundException;
+import com.okarath.assessment.mapper.MatchMapper;
+import com.okarath.assessment.repository.MatchOddRepository;
 import com.okarath.assessment.repository.MatchRepository;
 import com.okarath.assessment.service.MatchService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.util.Optional.ofNullable;
@@ -23,93 +40,175 @@ import static java.util.Optional.ofNullable;
 @Service
 public class MatchServiceImpl implements MatchService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 2000;
+
     private final MatchRepository matchRepository;
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+    private final MatchOddRepository matchOddRepository;
+    private final OddsCache oddsCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MatchMapper matchMapper;
 
-    public MatchServiceImpl(MatchRepository matchRepository) {
+    public MatchServiceImpl(MatchRepository matchRepository, MatchOddRepository matchOddRepository, OddsCache oddsCache,
+                            ApplicationEventPublisher eventPublisher, MatchMapper matchMapper) {
         this.matchRepository = matchRepository;
+        this.matchOddRepository = matchOddRepository;
+        this.oddsCache = oddsCache;
+        this.eventPublisher = eventPublisher;
+        this.matchMapper = matchMapper;
     }
 
     @Override
     public MatchDto save(MatchDto match) {
-        Match m = convertToEntity(match);
-        if (matchRepository.existsByTeamAAndTeamBAndSportAndMatchDate(m.getTeamA(), m.getTeamB(), m.getSport(), m.getMatchDate())) {
-            throw new ResourceAlreadyExistsException(String.format("%s match between %s and %s on %s already exists.", m.getSport(), m.getTeamA(), m.getTeamB(), match.date()));
-        }
-        Match savedMatch = matchRepository.save(m);
-        return convertToDto(savedMatch);
+        Match m = matchMapper.toEntity(match);
+        return matchRepository.insertIfAbsent(m)
+                .map(matchMapper::toDto)
+                .orElseThrow(() -> new ResourceAlreadyExistsException(String.format("%s match between %s and %s on %s already exists.", m.getSport(), m.getTeamA(), m.getTeamB(), match.date())));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public MatchDto findById(long id) {
         Match match = matchRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Match with id %s not found", id)));
-        return convertToDto(match);
+        return matchMapper.toDto(match);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getVersion(Long id) {
+        return matchRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(String.format("Match with id %s not found", id)));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MatchDto> getMatches(Pageable pageable) {
-        return matchRepository.findAll(pageable).map(this::convertToDto);
+        // page over ids first, then load the whole page with its odds in one query instead of one per match
+        Page<Long> ids = matchRepository.findAllIds(pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+        Map<Long, Match> matches = findAllById(ids.getContent());
+        // a match deleted since its id was paged is left out rather than failing the page
+        List<MatchDto> content = ids.stream().filter(matches::containsKey).map(id -> matchMapper.toDto(matches.get(id))).toList();
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
     }
 
     @Override
-    public boolean delete(Long id) {
-        if (matchRepository.existsById(id)) {
+    @Transactional(readOnly = true)
+    public MatchCursorPage getMatchesAfter(String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        // fetch one extra id to know whether there is a next page without running a count query
+        List<Long> ids;
+        if (cursor == null || cursor.isBlank()) {
+            ids = matchRepository.findFirstIdsInKeysetOrder(limit + 1);
+        } else {
+            MatchCursor after = MatchCursor.decode(cursor);
+            ids = matchRepository.findIdsInKeysetOrderAfter(after.date(), after.time(), after.id(), limit + 1);
+        }
+
+        boolean hasNext = ids.size() > limit;
+        List<Long> pageIds = hasNext ? ids.subList(0, limit) : ids;
+        if (pageIds.isEmpty()) {
+            return new MatchCursorPage(List.of(), null);
+        }
+
+        Map<Long, Match> matches = findAllById(pageIds);
+        // a match deleted since its id was selected is left out, the page continues after the last one still there
+        List<Match> page = pageIds.stream().filter(matches::containsKey).map(matches::get).toList();
+        if (page.isEmpty()) {
+            return hasNext ? getMatchesAfter(cursor, size) : new MatchCursorPage(List.of(), null);
+        }
+        Match last = page.get(page.size() - 1);
+        String nextCursor = hasNext ? new MatchCursor(last.getMatchDate(), last.getMatchTime(), last.getId()).encode() : null;
+        return new MatchCursorPage(page.stream().map(matchMapper::toDto).toList(), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MatchCursorPage search(MatchSearchCriteria criteria, String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        MatchCursor after = cursor == null || cursor.isBlank() ? null : MatchCursor.decode(cursor);
+        // projected rows instead of entities: nothing to hydrate, track or dirty check
+        List<MatchRow> rows = matchRepository.search(criteria, after, limit + 1);
+
+        boolean hasNext = rows.size() > limit;
+        List<MatchRow> page = hasNext ? rows.subList(0, limit) : rows;
+        if (page.isEmpty()) {
+            return new MatchCursorPage(List.of(), null);
+        }
+
+        Map<Long, Set<OddDto>> odds = matchOddRepository.findRowsByMatchIdIn(page.stream().map(MatchRow::id).toList()).stream()
+                .collect(Collectors.groupingBy(MatchOddRow::matchId, Collectors.mapping(matchMapper::toDto, Collectors.toSet())));
+        MatchRow last = page.get(page.size() - 1);
+        String nextCursor = hasNext ? new MatchCursor(last.matchDate(), last.matchTime(), last.id()).encode() : null;
+        return new MatchCursorPage(page.stream().map(row -> matchMapper.toDto(row, odds.getOrDefault(row.id(), Set.of()))).toList(), nextCursor);
+    }
+
+    @Override
+    @Transactional
+    public boolean delete(Long id, Long expectedVersion) {
+        if (expectedVersion != null) {
+            Optional<Match> match = matchRepository.findById(id);
+            if (match.isEmpty()) return false;
+            checkVersion(match.get(), expectedVersion);
+            matchRepository.delete(match.get());
+            flush(id, expectedVersion);
+        } else if (matchRepository.existsById(id)) {
             matchRepository.deleteById(id);
-            return true;
+        } else {
+            return false;
         }
-        return false;
+        oddsCache.evictAfterCommit(id);
+        eventPublisher.publishEvent(new OddsChangedEvent(id));
+        eventPublisher.publishEvent(new MatchChangedEvent(id));
+        return true;
     }
 
     @Override
-    public void updateMatch(Long id, UpdateMatchDto updateMatchDto) {
+    @Transactional
+    public void updateMatch(Long id, UpdateMatchDto updateMatchDto, Long expectedVersion) {
         Match existingMatch = matchRepository.findById(id)
                 .orElseThrow(() ->  new ResourceNotFoundException(String.format("Match with id %s not found", id)));
+        if (expectedVersion != null) {
+            checkVersion(existingMatch, expectedVersion);
+        }
 
         ofNullable(updateMatchDto.time())
-                .ifPresent(it -> existingMatch.setMatchTime(LocalTime.parse(it, timeFormatter)));
+                .ifPresent(it -> existingMatch.setMatchTime(matchMapper.parseTime(it)));
         ofNullable(updateMatchDto.description())
                 .ifPresent(existingMatch::setDescription);
+        // the @Version column is bumped by this update and checked in its WHERE clause
         matchRepository.save(existingMatch);
+        flush(id, expectedVersion);
+        // the cached odds carry the match version their ETag is made of
+        oddsCache.evictAfterCommit(id);
+        eventPublisher.publishEvent(new MatchChangedEvent(id));
     }
 
-    private Match convertToEntity(MatchDto match){
-        Match m = Match.builder()
-                .teamA(match.teamA())
-                .teamB(match.teamB())
-                .description(match.description() == null ? String.format("%s-%s", match.teamA(), match.teamB()) : match.description())
-                .matchDate(LocalDate.parse(match.date(), dateFormatter))
-                .matchTime(LocalTime.parse(match.time(), timeFormatter))
-                .sport(match.sport())
-                .build();
-
-        if (match.odds() != null) {
-            m.setOdds(match.odds().stream().map(odd -> MatchOdd.builder()
-                    .match(m)
-                    .specifier(odd.specifier())
-                    .odd(odd.odd())
-                    .build()).collect(Collectors.toSet()));
+    private void checkVersion(Match match, long expectedVersion) {
+        if (match.getVersion() != expectedVersion) {
+            throw new PreconditionFailedException(String.format("Match with id %s is no longer at version %s", match.getId(), expectedVersion));
         }
+    }
 
-        return m;
+    /**
+     * Flushes inside the method so a concurrent change detected by the version check surfaces as 412 for
+     * conditional requests and as 409 otherwise, instead of failing the commit.
+     */
+    private void flush(Long id, Long expectedVersion) {
+        try {
+            matchRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion != null) {
+                throw new PreconditionFailedException(String.format("Match with id %s is no longer at version %s", id, expectedVersion));
+            }
+            throw new ResourceConflictException(String.format("Match with id %s was changed concurrently", id));
+        }
     }
 
-    private MatchDto convertToDto(Match match) {
-        return MatchDto.builder()
-                .id(match.getId())
-                .description(match.getDescription())
-                .teamA(match.getTeamA())
-                .teamB(match.getTeamB())
-                .time(match.getMatchTime().format(timeFormatter))
-                .date(match.getMatchDate().format(dateFormatter))
-                .sport(match.getSport())
-                .odds(match.getOdds().stream().map(odd -> OddDto
-                        .builder()
-                        .id(odd.getId())
-                        .specifier(odd.getSpecifier())
-                        .odd(odd.getOdd())
-                        .build()).collect(Collectors.toSet()))
-                .build();
+    private Map<Long, Match> findAllById(List<Long> ids) {
+        return matchRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Match::getId, Function.identity()));
     }
 }
@@ -0,0 +1,41 @@
+package com.okarath.assessment.service.impl;
+
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.exception.ResourceNotFoundException;
+import com.okarath.assessment.mapper.MatchMapper;
+import com.okarath.assessment.repository.MatchReadRepository;
+import com.okarath.assessment.service.MatchReadService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@ConditionalOnProperty(name = "app.reads.reactive.enabled", havingValue = "true")
+public class ReactiveMatchReadServiceImpl implements MatchReadService {
+
+    private final MatchReadRepository matchReadRepository;
+    private final MatchMapper matchMapper;
+
+    public ReactiveMatchReadServiceImpl(MatchReadRepository matchReadRepository, MatchMapper matchMapper) {
+        this.matchReadRepository = matchReadRepository;
+        this.matchMapper = matchMapper;
+    }
+
+    @Override
+    public Mono<MatchDto> findById(Long id) {
+        return matchReadRepository.findById(id)
+                .map(matchMapper::toDto)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(String.format("Match with id %s not found", id))));
+    }
+
+    @Override
+    public Mono<Set<OddDto>> getOddsForMatch(Long matchId) {
+        return matchReadRepository.findOddsByMatchId(matchId)
+                .map(odds -> odds.stream().map(matchMapper::toDto).collect(Collectors.toSet()))
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(String.format("Match with id %s not found", matchId))));
+    }
+}
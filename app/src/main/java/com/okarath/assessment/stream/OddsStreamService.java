@@ -0,0 +1,288 @@
+package com.okarath.assessment.stream;
+
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.event.OddsChangedEvent;
+import com.okarath.assessment.exception.ResourceNotFoundException;
+import com.okarath.assessment.exception.ServiceUnavailableException;
+import com.okarath.assessment.service.MatchOddsService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes the odds of a match to Server-Sent Events subscribers after every committed change.
+ * <p>
+ * Each subscriber holds at most one pending snapshot: a newer snapshot replaces one that has not been sent yet,
+ * so a slow client only ever receives the latest odds and its memory footprint does not grow with the change rate.
+ * <p>
+ * A client that stops reading blocks its send on a shared send thread. A send still running after
+ * {@code app.odds-stream.send-timeout} drops the subscriber, and the send pool gets an extra thread until the blocked
+ * one returns, so stalled clients never hold up delivery to the others.
+ */
+@Slf4j
+@Service
+public class OddsStreamService {
+
+    private static final String EVENT_NAME = "odds";
+
+    private final MatchOddsService matchOddsService;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Duration sendTimeout;
+
+    private final ConcurrentHashMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Set<Long> changedMatches = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor loadExecutor;
+    private final ThreadPoolExecutor sendExecutor;
+    private final ScheduledExecutorService watchdog;
+
+    public OddsStreamService(MatchOddsService matchOddsService,
+                             @Value("${app.odds-stream.max-subscribers:10000}") int maxSubscribers,
+                             @Value("${app.odds-stream.send-threads:16}") int sendThreads,
+                             @Value("${app.odds-stream.timeout:30m}") Duration timeout,
+                             @Value("${app.odds-stream.send-timeout:10s}") Duration sendTimeout) {
+        this.matchOddsService = matchOddsService;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+        this.loadExecutor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxSubscribers), new CustomizableThreadFactory("odds-stream-load-"));
+        this.sendExecutor = new ThreadPoolExecutor(sendThreads, sendThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxSubscribers), new CustomizableThreadFactory("odds-stream-send-"));
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("odds-stream-watchdog-"));
+    }
+
+    @PostConstruct
+    public void start() {
+        long period = Math.max(sendTimeout.toMillis() / 2, 1);
+        watchdog.scheduleAtFixedRate(this::dropStalledSubscribers, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Long matchId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many odds stream subscribers, retry later");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(matchId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.compute(matchId, (id, matchSubscribers) -> {
+            Set<Subscriber> updated = matchSubscribers == null ? ConcurrentHashMap.newKeySet() : matchSubscribers;
+            updated.add(subscriber);
+            return updated;
+        });
+
+        // loaded only once subscribed, so a change committed meanwhile is published to this subscriber too
+        Set<OddDto> odds;
+        try {
+            odds = matchOddsService.getOddsForMatch(matchId);
+        } catch (RuntimeException e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        subscriber.offerSnapshot(odds);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOddsChanged(OddsChangedEvent event) {
+        Long matchId = event.matchId();
+        if (!subscribers.containsKey(matchId) || !changedMatches.add(matchId)) {
+            return;
+        }
+        try {
+            loadExecutor.execute(() -> publish(matchId));
+        } catch (RejectedExecutionException e) {
+            changedMatches.remove(matchId);
+            log.warn("Dropped odds stream update for match {}, the load queue is full", matchId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        loadExecutor.shutdownNow();
+        sendExecutor.shutdownNow();
+        subscribers.values().forEach(matchSubscribers -> matchSubscribers.forEach(s -> s.emitter.complete()));
+    }
+
+    private void publish(Long matchId) {
+        // cleared before loading, so a change committed during the load schedules another publish
+        changedMatches.remove(matchId);
+        Set<Subscriber> matchSubscribers = subscribers.get(matchId);
+        if (matchSubscribers == null) {
+            return;
+        }
+
+        Set<OddDto> odds;
+        try {
+            odds = matchOddsService.getOddsForMatch(matchId);
+        } catch (ResourceNotFoundException e) {
+            matchSubscribers.forEach(s -> s.emitter.complete());
+            return;
+        }
+        matchSubscribers.forEach(s -> s.offer(odds));
+    }
+
+    private void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(matchSubscribers -> matchSubscribers.forEach(subscriber -> {
+            if (!subscriber.markStalled(now)) {
+                return;
+            }
+            log.debug("Dropping odds stream subscriber of match {}, a send took longer than {}", subscriber.matchId, sendTimeout);
+            resizeSendExecutor(1);
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(new TimeoutException("Odds stream send took longer than " + sendTimeout));
+        }));
+    }
+
+    private synchronized void resizeSendExecutor(int delta) {
+        // the maximum size must never drop below the core size, so it grows first and shrinks last
+        if (delta > 0) {
+            sendExecutor.setMaximumPoolSize(sendExecutor.getMaximumPoolSize() + delta);
+            sendExecutor.setCorePoolSize(sendExecutor.getCorePoolSize() + delta);
+        } else {
+            sendExecutor.setCorePoolSize(sendExecutor.getCorePoolSize() + delta);
+            sendExecutor.setMaximumPoolSize(sendExecutor.getMaximumPoolSize() + delta);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        AtomicBoolean removed = new AtomicBoolean();
+        subscribers.computeIfPresent(subscriber.matchId, (id, matchSubscribers) -> {
+            removed.set(matchSubscribers.remove(subscriber));
+            return matchSubscribers.isEmpty() ? null : matchSubscribers;
+        });
+        if (removed.get()) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private final class Subscriber {
+
+        private final Long matchId;
+        private final SseEmitter emitter;
+        private final AtomicReference<Set<OddDto>> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // guarded by this, set once any odds were offered
+        private boolean offered;
+        // guarded by this, when the running send started or 0, and whether it was given up on
+        private long sendStartedAt;
+        private boolean stalled;
+
+        private Subscriber(Long matchId, SseEmitter emitter) {
+            this.matchId = matchId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Set<OddDto> odds) {
+            synchronized (this) {
+                offered = true;
+                pending.set(odds);
+            }
+            schedule();
+        }
+
+        /**
+         * Offers the odds loaded on subscription, unless a change already offered odds loaded after them.
+         */
+        private void offerSnapshot(Set<OddDto> odds) {
+            synchronized (this) {
+                if (offered) {
+                    return;
+                }
+                offered = true;
+                pending.set(odds);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sendExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // the snapshot stays pending and goes out with the next change
+                sending.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<OddDto> odds;
+                while ((odds = pending.getAndSet(null)) != null) {
+                    send(odds);
+                }
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                sending.set(false);
+            }
+            if (pending.get() != null) {
+                schedule();
+            }
+        }
+
+        private void send(Set<OddDto> odds) throws IOException {
+            synchronized (this) {
+                sendStartedAt = System.nanoTime();
+            }
+            try {
+                emitter.send(SseEmitter.event().name(EVENT_NAME).data(odds, MediaType.APPLICATION_JSON));
+            } finally {
+                boolean wasStalled;
+                synchronized (this) {
+                    sendStartedAt = 0;
+                    wasStalled = stalled;
+                    stalled = false;
+                }
+                if (wasStalled) {
+                    resizeSendExecutor(-1);
+                }
+            }
+        }
+
+        /**
+         * Marks the running send as stalled if it started more than the send timeout before {@code now}.
+         *
+         * @return true only for the first check that finds the send stalled
+         */
+        private synchronized boolean markStalled(long now) {
+            if (sendStartedAt == 0 || stalled || now - sendStartedAt < sendTimeout.toNanos()) {
+                return false;
+            }
+            stalled = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.okarath.assessment.wire;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Serves the same DTOs as Smile ({@code application/x-jackson-smile}) or CBOR ({@code application/cbor}) to clients
+ * that ask for them in Accept. Spring MVC registers both converters after the JSON one when the libraries are present,
+ * so requests without a preference still get the JSON they always got; this swaps in mappers that share the
+ * configuration of the JSON mapper.
+ */
+@Configuration
+public class BinaryFormatsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    public BinaryFormatsConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // same modules and features as the JSON mapper; repeated values such as specifiers are back-referenced too
+        SmileFactory smile = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        replace(converters, MappingJackson2SmileHttpMessageConverter.class,
+                new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder.getObject().factory(smile).build()));
+        replace(converters, MappingJackson2CborHttpMessageConverter.class,
+                new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+    }
+
+    private static void replace(List<HttpMessageConverter<?>> converters, Class<?> type, HttpMessageConverter<?> converter) {
+        int index = -1;
+        for (int i = 0; i < converters.size() && index < 0; i++) {
+            if (type.isInstance(converters.get(i))) index = i;
+        }
+        if (index < 0) {
+            converters.add(converter);
+        } else {
+            converters.set(index, converter);
+        }
+    }
+}
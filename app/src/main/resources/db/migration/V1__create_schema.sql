@@ -0,0 +1,25 @@
+-- the schema as created by the former db-postgres/create.sql init script; databases created by that script are
+-- baselined at this version (spring.flyway.baseline-version) and upgraded with the migrations that follow
+CREATE TABLE matches (
+   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+   description VARCHAR(255),
+   match_date DATE NOT NULL,
+   match_time TIME WITHOUT TIME ZONE NOT NULL,
+   team_a VARCHAR(255) NOT NULL,
+   team_b VARCHAR(255) NOT NULL,
+   sport INTEGER NOT NULL,
+   CONSTRAINT pk_match PRIMARY KEY (id)
+);
+
+-- the duplicate check of match creates and imports
+ALTER TABLE matches ADD CONSTRAINT uc_1213803dd8c00ebdef12559d6 UNIQUE (team_a, team_b, sport, match_date);
+
+CREATE TABLE match_odds (
+   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+   match_id BIGINT NOT NULL,
+   specifier VARCHAR(255) NOT NULL,
+   odd DOUBLE PRECISION NOT NULL,
+   CONSTRAINT pk_match_odd PRIMARY KEY (id)
+);
+
+ALTER TABLE match_odds ADD CONSTRAINT FK_MATCH_ODD_ON_MATCHID FOREIGN KEY (match_id) REFERENCES matches (id);
@@ -0,0 +1,15 @@
+-- ids come from pooled-lo sequences (allocation 50) instead of IDENTITY columns, so Hibernate can batch inserts;
+-- the sequences start after the existing rows
+CREATE SEQUENCE matches_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE matches ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE matches ALTER COLUMN id SET DEFAULT nextval('matches_seq');
+SELECT setval('matches_seq', (SELECT coalesce(max(id), 0) + 1 FROM matches), false);
+
+CREATE SEQUENCE match_odds_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE match_odds ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE match_odds ALTER COLUMN id SET DEFAULT nextval('match_odds_seq');
+SELECT setval('match_odds_seq', (SELECT coalesce(max(id), 0) + 1 FROM match_odds), false);
+
+-- the ON CONFLICT target of the odds upsert; with match_id leading it is also the index behind every lookup of
+-- the odds of a match (findByMatch, Match.odds, the foreign key check when a match is deleted)
+ALTER TABLE match_odds ADD CONSTRAINT uc_match_odds_match_id_specifier UNIQUE (match_id, specifier);
@@ -0,0 +1,2 @@
+-- keyset pagination of the match listing
+CREATE INDEX idx_matches_date_time_id ON matches (match_date, match_time, id);
@@ -0,0 +1,3 @@
+-- ETags and optimistic locking of matches and odds
+ALTER TABLE matches ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE match_odds ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
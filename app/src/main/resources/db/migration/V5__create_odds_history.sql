@@ -0,0 +1,12 @@
+CREATE SEQUENCE odds_history_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE odds_history (
+   id BIGINT DEFAULT nextval('odds_history_seq') NOT NULL,
+   match_id BIGINT NOT NULL,
+   specifier VARCHAR(255) NOT NULL,
+   odd DOUBLE PRECISION NOT NULL,
+   changed_at TIMESTAMP WITH TIME ZONE NOT NULL,
+   CONSTRAINT pk_odds_history PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_odds_history_match_id_changed_at ON odds_history (match_id, changed_at, id);
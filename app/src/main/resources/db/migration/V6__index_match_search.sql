@@ -0,0 +1,9 @@
+-- match search: a sport filter walks this index in (match_date, match_time, id) order, so a page stops after
+-- its first rows instead of sorting every match of the sport
+CREATE INDEX idx_matches_sport_date_time_id ON matches (sport, match_date, match_time, id);
+
+-- match search by team: team_a is the leading column of the unique constraint, team_b needs its own index for
+-- the team_a = ? OR team_b = ? filter to combine both
+CREATE INDEX idx_matches_team_b ON matches (team_b);
+
+-- "has odds for specifier" is an EXISTS probe on the (match_id, specifier) unique constraint, no index needed
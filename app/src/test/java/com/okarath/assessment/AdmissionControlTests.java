@@ -0,0 +1,45 @@
+package com.okarath.assessment;
+
+import com.okarath.assessment.admission.AdmissionLimiter;
+import com.okarath.assessment.admission.EndpointClass;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"app.admission.enabled=true", "app.admission.initial-limit=1", "app.admission.min-limit=1",
+        "app.admission.max-limit=1", "app.admission.queue-budget.list-read=0ms", "app.admission.retry-after=3s"})
+@AutoConfigureMockMvc
+@Import({TestcontainersConfiguration.class})
+public class AdmissionControlTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionLimiter admissionLimiter;
+
+    @Test
+    public void shouldShedListReadsOverTheLimitWithRetryAfter() throws Exception {
+        // stands in for a list read still running
+        AdmissionLimiter.Permit running = admissionLimiter.acquire(EndpointClass.LIST_READ);
+
+        mockMvc.perform(get("/api/v1/matches"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+        // point reads have a limit of their own
+        mockMvc.perform(get("/api/v1/matches/{id}", 987654))
+                .andExpect(status().isNotFound());
+
+        admissionLimiter.release(running);
+        mockMvc.perform(get("/api/v1/matches"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,155 @@
+package com.okarath.assessment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okarath.assessment.dto.UpdateMatchDto;
+import com.okarath.assessment.dto.UpdateOddDto;
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.repository.MatchRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Three instances of the app on one database. The odds cache never expires during the test, so a write on one
+ * instance can only become visible on the others, whose caches hold the old odds, through the invalidation
+ * notifications.
+ */
+@Testcontainers
+public class CacheInvalidationTests {
+
+    private static final Duration VISIBLE_WITHIN = Duration.ofSeconds(2);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+            .withDatabaseName("cache-invalidation")
+            .withUsername("user")
+            .withPassword("pass");
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private static final List<MockMvc> mockMvcs = new ArrayList<>();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    public static void startNodes() {
+        for (int i = 0; i < 3; i++) {
+            // passed as arguments, default properties would lose against application.yml
+            ConfigurableApplicationContext node = new SpringApplicationBuilder(MatchOddsAppApplication.class).run(
+                    "--server.port=0",
+                    "--app.cache.odds.expire-after-write=1h",
+                    "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                    "--spring.datasource.username=" + postgres.getUsername(),
+                    "--spring.datasource.password=" + postgres.getPassword());
+            nodes.add(node);
+            mockMvcs.add(MockMvcBuilders.webAppContextSetup((WebApplicationContext) node).build());
+        }
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    public void shouldShowOddUpdateOnEveryNode() throws Exception {
+        Match match = seed("Invalidate Odd");
+        Long oddId = match.getOdds().iterator().next().getId();
+        warmCaches(match.getId());
+
+        mockMvcs.get(0).perform(patch("/api/v1/matches/{matchId}/odds/{oddId}", match.getId(), oddId)
+                        .content(objectMapper.writeValueAsString(new UpdateOddDto(2.75)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+
+        assertVisibleOnEveryNode(get("/api/v1/matches/{matchId}/odds", match.getId()), jsonPath("$[0].odd").value(2.75));
+    }
+
+    @Test
+    public void shouldShowMatchUpdateInOddsETagOnEveryNode() throws Exception {
+        Match match = seed("Invalidate Match");
+        warmCaches(match.getId());
+
+        mockMvcs.get(1).perform(patch("/api/v1/matches/{id}", match.getId())
+                        .content(objectMapper.writeValueAsString(new UpdateMatchDto(null, "Rescheduled")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+
+        assertVisibleOnEveryNode(get("/api/v1/matches/{matchId}/odds", match.getId()), header().string("ETag", "\"1\""));
+    }
+
+    @Test
+    public void shouldShowDeleteOnEveryNode() throws Exception {
+        Match match = seed("Invalidate Delete");
+        warmCaches(match.getId());
+
+        mockMvcs.get(2).perform(delete("/api/v1/matches/{id}", match.getId()))
+                .andExpect(status().isNoContent());
+
+        assertVisibleOnEveryNode(get("/api/v1/matches/{matchId}/odds", match.getId()), status().isNotFound());
+    }
+
+    private Match seed(String name) {
+        Match match = Match.builder()
+                .teamA(name + " A")
+                .teamB(name + " B")
+                .description(name)
+                .matchDate(LocalDate.of(2025, 7, 1))
+                .matchTime(LocalTime.of(20, 0))
+                .sport(Sport.FOOTBALL)
+                .build();
+        match.setOdds(Set.of(MatchOdd.builder().match(match).specifier(Specifier.ONE).odd(1.25).build()));
+        return nodes.get(0).getBean(MatchRepository.class).save(match);
+    }
+
+    private void warmCaches(Long matchId) throws Exception {
+        for (MockMvc mockMvc : mockMvcs) {
+            mockMvc.perform(get("/api/v1/matches/{matchId}/odds", matchId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].odd").value(1.25));
+        }
+    }
+
+    private void assertVisibleOnEveryNode(RequestBuilder request, ResultMatcher expected) throws Exception {
+        long deadline = System.nanoTime() + VISIBLE_WITHIN.toNanos();
+        for (MockMvc mockMvc : mockMvcs) {
+            while (true) {
+                try {
+                    mockMvc.perform(request).andExpect(expected);
+                    break;
+                } catch (AssertionError e) {
+                    if (System.nanoTime() > deadline) throw e;
+                    Thread.sleep(20);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.okarath.assessment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.repository.MatchRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.idempotency.maximum-size=1000")
+@AutoConfigureMockMvc
+@Import({TestcontainersConfiguration.class})
+public class IdempotentCreateTests {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void shouldCreateConcurrentDuplicatesOnceAndRejectTheRest() throws Exception {
+        MatchDto match = match("Race A", "Race B");
+        long before = matchRepository.count();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> creates = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                creates.add(executor.submit((Callable<Integer>) () -> {
+                    start.await();
+                    return mockMvc.perform(create(match)).andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<Integer> create : creates) {
+                int status = create.get();
+                if (status == 201) {
+                    created++;
+                } else {
+                    assertEquals(400, status);
+                }
+            }
+            assertEquals(1, created);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(before + 1, matchRepository.count());
+    }
+
+    @Test
+    public void shouldReplayRetriesWithTheSameIdempotencyKey() throws Exception {
+        MatchDto match = match("Retry A", "Retry B");
+
+        String location = mockMvc.perform(create(match).header("Idempotency-Key", "feed-42"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+        // the match exists now, so without the key the retry would be a 400
+        mockMvc.perform(create(match).header("Idempotency-Key", "feed-42"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, location));
+        mockMvc.perform(create(match))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(create(match("Other A", "Other B")).header("Idempotency-Key", "feed-42"))
+                .andExpect(status().isConflict());
+    }
+
+    private MockHttpServletRequestBuilder create(MatchDto match) throws Exception {
+        return post("/api/v1/matches")
+                .content(objectMapper.writeValueAsString(match))
+                .contentType(MediaType.APPLICATION_JSON);
+    }
+
+    private static MatchDto match(String teamA, String teamB) {
+        return MatchDto.builder()
+                .teamA(teamA)
+                .teamB(teamB)
+                .date("01/07/2025")
+                .time("20:00")
+                .sport(Sport.FOOTBALL)
+                .odds(Set.of(new OddDto(null, Specifier.ONE, 1.8), new OddDto(null, Specifier.X, 3.2)))
+                .build();
+    }
+}
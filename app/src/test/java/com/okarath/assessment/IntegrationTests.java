@@ -1,6 +1,10 @@
 package com.okarath.assessment;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.okarath.assessment.dto.*;
 import com.okarath.assessment.entity.Match;
 import com.okarath.assessment.entity.MatchOdd;
@@ -8,6 +12,8 @@ import com.okarath.assessment.entity.Specifier;
 import com.okarath.assessment.entity.Sport;
 import com.okarath.assessment.repository.MatchOddRepository;
 import com.okarath.assessment.repository.MatchRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -15,17 +21,22 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import javax.sql.DataSource;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -47,6 +58,12 @@ public class IntegrationTests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
     @Test
     @Order(1)
     public void contextLoads() {
@@ -60,6 +77,20 @@ public class IntegrationTests {
         assertNotNull(matchOddRepository);
     }
 
+    @Test
+    @Order(2)
+    public void shouldRewriteBatchedInserts() throws Exception {
+        // the batched odds upsert is only sent as one multi-row INSERT with this driver property
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        assertEquals("true", pool.getDataSourceProperties().getProperty("reWriteBatchedInserts"));
+    }
+
+    @Test
+    @Order(2)
+    public void shouldNotOpenR2dbcPoolWithoutReactiveReads() {
+        assertEquals(0, applicationContext.getBeanNamesForType(ConnectionFactory.class).length);
+    }
+
     @Test
     @Order(3)
     public void shouldCreateMatchAndOdds() throws Exception {
@@ -250,6 +281,242 @@ public class IntegrationTests {
     }
 
 
+    @Test
+    @Order(15)
+    public void shouldBatchUpsertOdds() throws Exception {
+        OddsBatchDto batch = new OddsBatchDto(List.of(
+                new OddUpsertDto(1L, Specifier.ONE, 2.1),
+                new OddUpsertDto(1L, Specifier.X, 3.2),
+                new OddUpsertDto(100L, Specifier.ONE, 1.1),
+                new OddUpsertDto(1L, Specifier.X, 3.3)));
+
+        mockMvc.perform(post("/api/v1/matches/odds/batch")
+                        .content(objectMapper.writeValueAsString(batch))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].status").value("SUPERSEDED"))
+                .andExpect(jsonPath("$[2].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[3].status").value("CREATED"));
+
+        assertEquals(3, matchOddRepository.findAll().size());
+        Set<MatchOdd> odds = matchOddRepository.findByMatch(matchRepository.findById(1L).get());
+        assertEquals(2.1, odds.stream().filter(o -> o.getSpecifier() == Specifier.ONE).findAny().get().getOdd());
+        assertEquals(3.3, odds.stream().filter(o -> o.getSpecifier() == Specifier.X).findAny().get().getOdd());
+    }
+
+    @Test
+    @Order(16)
+    public void shouldWalkMatchesWithCursor() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/matches").param("cursor", "").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].teamA").value("OSFP"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn();
+        MatchCursorPage firstPage = objectMapper.readValue(first.getResponse().getContentAsString(), MatchCursorPage.class);
+
+        mockMvc.perform(get("/api/v1/matches").param("cursor", firstPage.nextCursor()).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].teamA").value("PAOK"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @Order(17)
+    public void shouldCompareAndSetOdd() throws Exception {
+        mockMvc.perform(patch("/api/v1/matches/1/odds/1")
+                        .content(objectMapper.writeValueAsString(new UpdateOddDto(2.2, 1.0)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+        assertEquals(2.1, matchOddRepository.findById(1L).get().getOdd());
+
+        mockMvc.perform(patch("/api/v1/matches/1/odds/1")
+                        .content(objectMapper.writeValueAsString(new UpdateOddDto(2.2, 2.1)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+        assertEquals(2.2, matchOddRepository.findById(1L).get().getOdd());
+    }
+
+    @Test
+    @Order(18)
+    public void shouldReturnNotFoundWhenOddBelongsToAnotherMatch() throws Exception {
+        mockMvc.perform(patch("/api/v1/matches/2/odds/1")
+                        .content(objectMapper.writeValueAsString(new UpdateOddDto(2.3)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/v1/matches/2/odds/1"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Order(19)
+    public void shouldStreamOddsChanges() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/v1/matches/1/odds/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(patch("/api/v1/matches/1/odds/1")
+                        .content(objectMapper.writeValueAsString(new UpdateOddDto(2.45)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!stream.getResponse().getContentAsString().contains("2.45") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        String events = stream.getResponse().getContentAsString();
+        assertTrue(events.startsWith("event:odds"));
+        assertTrue(events.contains("2.45"));
+    }
+
+    @Test
+    @Order(20)
+    public void shouldAnswerConditionalGetWithNotModifiedUntilOddsChange() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/matches/1/odds"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/matches/1/odds").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/v1/matches/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/api/v1/matches/1/odds/1")
+                        .content(objectMapper.writeValueAsString(new UpdateOddDto(2.5)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+
+        String changedEtag = mockMvc.perform(get("/api/v1/matches/1/odds").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, changedEtag);
+    }
+
+    @Test
+    @Order(21)
+    public void shouldRejectOddUpdateWithStaleIfMatch() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/matches/1/odds"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(patch("/api/v1/matches/1/odds/1")
+                        .header("If-Match", etag)
+                        .content(objectMapper.writeValueAsString(new UpdateOddDto(2.6)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(patch("/api/v1/matches/1/odds/1")
+                        .header("If-Match", etag)
+                        .content(objectMapper.writeValueAsString(new UpdateOddDto(2.7)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/v1/matches/1")
+                        .header("If-Match", etag)
+                        .content(objectMapper.writeValueAsString(new UpdateMatchDto("20:00", "Stale")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals(2.6, matchOddRepository.findById(1L).get().getOdd());
+    }
+
+    @Test
+    @Order(22)
+    public void shouldRecordOddsHistoryInChangeOrder() throws Exception {
+        TypeReference<List<OddHistoryDto>> historyType = new TypeReference<>() {};
+        List<Double> prices = List.of();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!prices.contains(2.6) && System.currentTimeMillis() < deadline) {
+            String body = mockMvc.perform(get("/api/v1/matches/1/odds/history"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            prices = objectMapper.readValue(body, historyType).stream()
+                    .filter(h -> h.specifier() == Specifier.ONE)
+                    .map(OddHistoryDto::odd)
+                    .toList();
+        }
+        assertEquals(List.of(2.1, 2.2, 2.45, 2.5, 2.6), prices);
+
+        mockMvc.perform(get("/api/v1/matches/100/odds/history"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Order(23)
+    public void shouldSearchMatchesByFilters() throws Exception {
+        mockMvc.perform(get("/api/v1/matches/search").param("team", "PAO"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].teamA").value("OSFP"))
+                .andExpect(jsonPath("$.content[1].teamA").value("PAOK"));
+
+        mockMvc.perform(get("/api/v1/matches/search").param("sport", "FOOTBALL").param("from", "2025-03-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].teamA").value("PAOK"));
+
+        mockMvc.perform(get("/api/v1/matches/search").param("team", "OSFP").param("specifier", "ONE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].odds[?(@.specifier == 'ONE')].odd").value(2.6));
+
+        mockMvc.perform(get("/api/v1/matches/search").param("to", "2025-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/matches/search").param("sport", "CRICKET"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(24)
+    public void shouldExportAllMatchesAsNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/matches/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+
+        List<MatchDto> matches = result.getResponse().getContentAsString().lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, MatchDto.class);
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+        assertEquals(List.of("OSFP", "PAOK"), matches.stream().map(MatchDto::teamA).toList());
+        assertEquals(matchOddRepository.findAll().size(), matches.stream().mapToInt(m -> m.odds().size()).sum());
+    }
+
+    @Test
+    @Order(25)
+    public void shouldServeTheSamePayloadsAsSmileAndCbor() throws Exception {
+        byte[] json = mockMvc.perform(get("/api/v1/matches").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        MatchPage expected = objectMapper.readValue(json, MatchPage.class);
+
+        byte[] smile = mockMvc.perform(get("/api/v1/matches").param("size", "10").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(expected.getContent(), new ObjectMapper(new SmileFactory()).readValue(smile, MatchPage.class).getContent());
+
+        TypeReference<Set<OddDto>> oddsType = new TypeReference<>() {};
+        String odds = mockMvc.perform(get("/api/v1/matches/1/odds"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        byte[] cbor = mockMvc.perform(get("/api/v1/matches/1/odds").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(objectMapper.readValue(odds, oddsType), new ObjectMapper(new CBORFactory()).readValue(cbor, oddsType));
+    }
+
     @Test
     @Order(100) //last one
     public void shouldDeleteMatchAndOdds() throws Exception {
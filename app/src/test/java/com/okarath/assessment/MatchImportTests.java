@@ -0,0 +1,101 @@
+package com.okarath.assessment;
+
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.repository.MatchOddRepository;
+import com.okarath.assessment.repository.MatchRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.export.fetch-size=10")
+@AutoConfigureMockMvc
+@Import({TestcontainersConfiguration.class})
+public class MatchImportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private MatchOddRepository matchOddRepository;
+
+    @Test
+    public void shouldImportNewMatchesAndSkipDuplicatesAndInvalidRows() throws Exception {
+        Match existing = Match.builder()
+                .teamA("Import A")
+                .teamB("Import B")
+                .description("Import A-Import B")
+                .matchDate(LocalDate.of(2025, 8, 1))
+                .matchTime(LocalTime.of(20, 0))
+                .sport(Sport.FOOTBALL)
+                .build();
+        existing.setOdds(Set.of(MatchOdd.builder().match(existing).specifier(Specifier.ONE).odd(1.9).build()));
+        matchRepository.save(existing);
+        long matchesBefore = matchRepository.count();
+
+        // 50 new fixtures with odds, one repeated within the file, one that exists already and one invalid
+        String rows = IntStream.rangeClosed(1, 50)
+                .mapToObj(i -> String.format("{\"teamA\":\"Home %d\",\"teamB\":\"Away %d\",\"sport\":\"BASKETBALL\",\"date\":\"01/09/2025\",\"time\":\"18:00\","
+                        + "\"odds\":[{\"specifier\":\"ONE\",\"odd\":1.5},{\"specifier\":\"X\",\"odd\":3.2}]}", i, i))
+                .collect(Collectors.joining("\n", "", "\n"))
+                + "{\"teamA\":\"Home 1\",\"teamB\":\"Away 1\",\"sport\":\"BASKETBALL\",\"date\":\"01/09/2025\",\"time\":\"21:00\"}\n"
+                + "{\"teamA\":\"Import A\",\"teamB\":\"Import B\",\"sport\":\"FOOTBALL\",\"date\":\"01/08/2025\",\"time\":\"20:00\"}\n"
+                + "{\"teamA\":\"Same\",\"teamB\":\"same\",\"sport\":\"FOOTBALL\",\"date\":\"01/08/2025\",\"time\":\"20:00\"}\n";
+
+        mockMvc.perform(post("/api/v1/matches/import").content(rows).contentType("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(50))
+                .andExpect(jsonPath("$.duplicates").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0]").value("Row 53: TeamA & TeamB must not be equal"));
+
+        assertEquals(matchesBefore + 50, matchRepository.count());
+        Match first = matchRepository.findAll().stream()
+                .filter(m -> m.getTeamA().equals("Home 1"))
+                .findFirst().orElseThrow();
+        // the first row of a repeated match wins
+        assertEquals(LocalTime.of(18, 0), first.getMatchTime());
+        assertEquals("Home 1-Away 1", first.getDescription());
+        assertEquals(Set.of(Specifier.ONE, Specifier.X),
+                matchOddRepository.findByMatch(first).stream().map(MatchOdd::getSpecifier).collect(Collectors.toSet()));
+
+        String export = mockMvc.perform(get("/api/v1/matches/export"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(matchRepository.count(), export.lines().count());
+        assertTrue(export.contains("\"teamA\":\"Home 50\""));
+    }
+
+    @Test
+    public void shouldImportNothingFromMalformedJson() throws Exception {
+        long matchesBefore = matchRepository.count();
+
+        mockMvc.perform(post("/api/v1/matches/import")
+                        .content("{\"teamA\":\"Broken A\",\"teamB\":\"Broken B\",\"sport\":\"FOOTBALL\",\"date\":\"01/08/2025\",\"time\":\"20:00\"}\n{\"teamA\":")
+                        .contentType("application/x-ndjson"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(matchesBefore, matchRepository.count());
+    }
+}
@@ -0,0 +1,93 @@
+package com.okarath.assessment;
+
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.repository.MatchRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Import({TestcontainersConfiguration.class})
+public class MatchListingQueryCountTests {
+
+    private static final int MATCHES = 60;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void seed() {
+        if (matchRepository.count() > 0) return;
+
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < MATCHES; i++) {
+            Match match = Match.builder()
+                    .teamA("Home " + i)
+                    .teamB("Away " + i)
+                    .description("Home " + i + "-Away " + i)
+                    .sport(Sport.FOOTBALL)
+                    .matchDate(LocalDate.of(2025, 1, 1).plusDays(i))
+                    .matchTime(LocalTime.of(20, 45))
+                    .build();
+            match.setOdds(new HashSet<>(Set.of(
+                    MatchOdd.builder().match(match).specifier(Specifier.ONE).odd(1.5).build(),
+                    MatchOdd.builder().match(match).specifier(Specifier.X).odd(3.2).build(),
+                    MatchOdd.builder().match(match).specifier(Specifier.TWO).odd(4.1).build())));
+            matches.add(match);
+        }
+        matchRepository.saveAll(matches);
+    }
+
+    @Test
+    public void statementCountShouldNotGrowWithPageSize() throws Exception {
+        long small = statementsForPage(5);
+        long medium = statementsForPage(20);
+        long large = statementsForPage(50);
+
+        assertTrue(small <= 3, "expected at most 3 statements (ids, count, matches with odds) but was " + small);
+        assertEquals(small, medium);
+        assertEquals(small, large);
+    }
+
+    private long statementsForPage(int size) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/v1/matches").param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(size))
+                .andExpect(jsonPath("$.content[0].odds.length()").value(3));
+
+        return statistics.getPrepareStatementCount();
+    }
+}
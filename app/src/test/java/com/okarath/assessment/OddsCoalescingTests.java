@@ -0,0 +1,153 @@
+package com.okarath.assessment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okarath.assessment.dto.UpdateOddDto;
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.repository.MatchOddRepository;
+import com.okarath.assessment.repository.MatchRepository;
+import com.okarath.assessment.service.MatchOddsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"app.odds-coalescing.enabled=true", "app.odds-coalescing.flush-interval=1h"})
+@AutoConfigureMockMvc
+@Import({TestcontainersConfiguration.class})
+public class OddsCoalescingTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private MatchOddRepository matchOddRepository;
+
+    @Autowired
+    private MatchOddsService matchOddsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void shouldAcknowledgeBurstAndWriteOnlyTheLatestValue() throws Exception {
+        Match match = Match.builder()
+                .teamA("Burst A")
+                .teamB("Burst B")
+                .description("Burst A-Burst B")
+                .matchDate(LocalDate.of(2025, 6, 1))
+                .matchTime(LocalTime.of(18, 0))
+                .sport(Sport.FOOTBALL)
+                .build();
+        match.setOdds(Set.of(MatchOdd.builder().match(match).specifier(Specifier.ONE).odd(1.0).build()));
+        Match saved = matchRepository.save(match);
+        Long matchId = saved.getId();
+        Long oddId = saved.getOdds().iterator().next().getId();
+
+        for (int i = 1; i <= 50; i++) {
+            mockMvc.perform(patch("/api/v1/matches/{matchId}/odds/{oddId}", matchId, oddId)
+                            .content(objectMapper.writeValueAsString(new UpdateOddDto(1.0 + i / 100.0)))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isAccepted());
+        }
+
+        // read-your-writes before the flush, without an ETag that would not cover the pending value
+        mockMvc.perform(get("/api/v1/matches/{matchId}/odds", matchId))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$[0].odd").value(1.5));
+
+        assertEquals(1.0, matchOddRepository.findById(oddId).get().getOdd());
+
+        // the flush interval is an hour, so this is the only flush and it writes the burst once
+        matchOddsService.flushPendingOdds();
+        MatchOdd written = matchOddRepository.findById(oddId).get();
+        assertEquals(1.5, written.getOdd());
+        assertEquals(1, written.getVersion());
+
+        mockMvc.perform(get("/api/v1/matches/{matchId}/odds", matchId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$[0].odd").value(1.5));
+    }
+
+    @Test
+    public void shouldNotOverwriteConditionalUpdateWithOlderCoalescedValue() throws Exception {
+        Match match = Match.builder()
+                .teamA("Race A")
+                .teamB("Race B")
+                .description("Race A-Race B")
+                .matchDate(LocalDate.of(2025, 6, 2))
+                .matchTime(LocalTime.of(18, 0))
+                .sport(Sport.FOOTBALL)
+                .build();
+        match.setOdds(Set.of(MatchOdd.builder().match(match).specifier(Specifier.ONE).odd(1.0).build()));
+        Match saved = matchRepository.save(match);
+        Long matchId = saved.getId();
+        Long oddId = saved.getOdds().iterator().next().getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 1; i <= 20; i++) {
+                double coalesced = 1.0 + i / 100.0;
+                double conditional = 2.0 + i / 100.0;
+                mockMvc.perform(patch("/api/v1/matches/{matchId}/odds/{oddId}", matchId, oddId)
+                                .content(objectMapper.writeValueAsString(new UpdateOddDto(coalesced)))
+                                .contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isAccepted());
+
+                // the conditional write lands the pending value first, so it expects it whichever runs first
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> flush = executor.submit(() -> {
+                    start.await();
+                    matchOddsService.flushPendingOdds();
+                    return null;
+                });
+                Future<?> update = executor.submit(() -> {
+                    start.await();
+                    matchOddsService.updateOdd(matchId, oddId, new UpdateOddDto(conditional, coalesced), null);
+                    return null;
+                });
+                start.countDown();
+                flush.get(10, TimeUnit.SECONDS);
+                update.get(10, TimeUnit.SECONDS);
+
+                assertEquals(conditional, matchOddRepository.findById(oddId).get().getOdd());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRejectBufferedUpdateOfMissingOdd() throws Exception {
+        mockMvc.perform(patch("/api/v1/matches/{matchId}/odds/{oddId}", 987654, 1)
+                        .content(objectMapper.writeValueAsString(new UpdateOddDto(1.5)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,118 @@
+package com.okarath.assessment;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.dto.UpdateOddDto;
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.repository.MatchOddRepository;
+import com.okarath.assessment.repository.MatchRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+@SpringBootTest(properties = "app.cache.odds.type=compact")
+@AutoConfigureMockMvc
+@Import({TestcontainersConfiguration.class})
+public class OptimisticConcurrencyTests {
+
+    private static final int THREADS = 8;
+    private static final int INCREMENTS_PER_THREAD = 25;
+    // far above what THREADS contending writers need, low enough to fail fast if retries never succeed
+    private static final int MAX_ATTEMPTS_PER_INCREMENT = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private MatchOddRepository matchOddRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void shouldNotLoseConcurrentReadModifyWriteUpdates() throws Exception {
+        Match match = Match.builder()
+                .teamA("Concurrent A")
+                .teamB("Concurrent B")
+                .description("Concurrent A-Concurrent B")
+                .matchDate(LocalDate.of(2025, 5, 1))
+                .matchTime(LocalTime.of(20, 0))
+                .sport(Sport.FOOTBALL)
+                .build();
+        match.setOdds(Set.of(MatchOdd.builder().match(match).specifier(Specifier.ONE).odd(1.0).build()));
+        Match saved = matchRepository.save(match);
+        Long matchId = saved.getId();
+        Long oddId = saved.getOdds().iterator().next().getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    for (int n = 0; n < INCREMENTS_PER_THREAD; n++) {
+                        int attempts = 1;
+                        // stale ETag, another writer got in first: re-read and retry
+                        while (!increment(matchId, oddId)) {
+                            if (++attempts > MAX_ATTEMPTS_PER_INCREMENT) {
+                                fail(String.format("Increment %s did not succeed within %s attempts", n, MAX_ATTEMPTS_PER_INCREMENT));
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1.0 + THREADS * INCREMENTS_PER_THREAD, matchOddRepository.findById(oddId).get().getOdd());
+    }
+
+    private boolean increment(Long matchId, Long oddId) throws Exception {
+        MockHttpServletResponse read = mockMvc.perform(get("/api/v1/matches/{matchId}/odds", matchId)).andReturn().getResponse();
+        Set<OddDto> odds = objectMapper.readValue(read.getContentAsString(), new TypeReference<>() {});
+        double current = odds.iterator().next().odd();
+
+        int status = mockMvc.perform(patch("/api/v1/matches/{matchId}/odds/{oddId}", matchId, oddId)
+                        .header("If-Match", read.getHeader("ETag"))
+                        .content(objectMapper.writeValueAsString(new UpdateOddDto(current + 1)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getStatus();
+        if (status == HttpStatus.PRECONDITION_FAILED.value()) {
+            return false;
+        }
+        assertEquals(HttpStatus.NO_CONTENT.value(), status);
+        return true;
+    }
+}
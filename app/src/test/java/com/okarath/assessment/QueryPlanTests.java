@@ -0,0 +1,287 @@
+package com.okarath.assessment;
+
+import com.okarath.assessment.dto.MatchCursor;
+import com.okarath.assessment.dto.MatchSearchCriteria;
+import com.okarath.assessment.dto.OddUpsertDto;
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.repository.MatchOddRepository;
+import com.okarath.assessment.repository.MatchRepository;
+import com.okarath.assessment.repository.OddsHistoryRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs every repository lookup against a seeded database, captures the SQL it sends and fails if
+ * {@code EXPLAIN} of any of those statements, with the same parameters, plans a sequential scan.
+ * The full match listing and the export read the whole table by design and are not covered, neither are the R2DBC reads,
+ * which do not go through the JDBC data source.
+ */
+@SpringBootTest(properties = "spring.flyway.clean-disabled=true")
+@Import({TestcontainersConfiguration.class, QueryPlanTests.StatementCaptureConfiguration.class})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanTests {
+
+    private static final int MATCHES = 20_000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private MatchOddRepository matchOddRepository;
+
+    @Autowired
+    private OddsHistoryRepository oddsHistoryRepository;
+
+    private long matchId;
+    private long oddId;
+
+    @BeforeAll
+    public void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO matches (description, match_date, match_time, team_a, team_b, sport)
+                SELECT 'Seed ' || g, DATE '2025-01-01' + g % 365, TIME '12:00' + (g % 48) * INTERVAL '15 minutes',
+                       'Home ' || g, 'Away ' || g, g % 2
+                FROM generate_series(1, ?) g""", MATCHES);
+        jdbcTemplate.update("""
+                INSERT INTO match_odds (match_id, specifier, odd)
+                SELECT m.id, s.specifier, 1.5 FROM matches m CROSS JOIN (VALUES ('ONE'), ('X'), ('TWO')) AS s(specifier)""");
+        jdbcTemplate.update("""
+                INSERT INTO odds_history (match_id, specifier, odd, changed_at)
+                SELECT m.id, 'ONE', 1.0 + g / 100.0, TIMESTAMPTZ '2025-01-01 00:00:00Z' + g * INTERVAL '1 minute'
+                FROM matches m CROSS JOIN generate_series(1, 5) g""");
+        jdbcTemplate.execute("ANALYZE");
+
+        matchId = jdbcTemplate.queryForObject("SELECT id FROM matches ORDER BY id OFFSET ? LIMIT 1", Long.class, MATCHES / 2);
+        oddId = jdbcTemplate.queryForObject("SELECT id FROM match_odds WHERE match_id = ? AND specifier = 'ONE'", Long.class, matchId);
+    }
+
+    @Test
+    public void matchLookupsShouldUseIndexes() {
+        Match match = matchRepository.findById(matchId).orElseThrow();
+
+        assertIndexed("findById", () -> matchRepository.findById(matchId));
+        assertIndexed("findWithOddsById", () -> matchRepository.findWithOddsById(matchId));
+        assertIndexed("findAllByIdIn", () -> matchRepository.findAllByIdIn(List.of(matchId, matchId + 50)));
+        assertIndexed("findFirstIdsInKeysetOrder", () -> matchRepository.findFirstIdsInKeysetOrder(21));
+        assertIndexed("findIdsInKeysetOrderAfter", () -> matchRepository.findIdsInKeysetOrderAfter(
+                match.getMatchDate(), match.getMatchTime(), matchId, 21));
+        assertIndexed("findVersionById", () -> matchRepository.findVersionById(matchId));
+        assertIndexed("insertIfAbsent", () -> inRolledBackTransaction(() -> matchRepository.insertIfAbsent(Match.builder()
+                .teamA(match.getTeamA()).teamB(match.getTeamB()).description(match.getDescription())
+                .matchDate(match.getMatchDate()).matchTime(match.getMatchTime()).sport(match.getSport())
+                .odds(Set.of())
+                .build())));
+        assertIndexed("existsById", () -> matchRepository.existsById(matchId));
+        assertIndexed("incrementVersions", () -> inRolledBackTransaction(() -> matchRepository.incrementVersions(List.of(matchId))));
+        assertIndexed("incrementVersionIfMatches", () -> inRolledBackTransaction(() -> matchRepository.incrementVersionIfMatches(matchId, 0)));
+        assertIndexed("deleteById", () -> inRolledBackTransaction(() -> {
+            matchRepository.deleteById(matchId);
+            matchRepository.flush();
+        }));
+        assertIndexed("save", () -> inRolledBackTransaction(() -> matchRepository.saveAndFlush(Match.builder()
+                .teamA("Plan A").teamB("Plan B").description("Plan A-Plan B")
+                .matchDate(LocalDate.of(2026, 1, 1)).matchTime(LocalTime.NOON).sport(Sport.FOOTBALL)
+                .odds(Set.of())
+                .build())));
+    }
+
+    @Test
+    public void searchShouldUseIndexes() {
+        Match match = matchRepository.findById(matchId).orElseThrow();
+        MatchCursor after = new MatchCursor(match.getMatchDate(), match.getMatchTime(), matchId);
+
+        assertIndexed("search by sport", () -> matchRepository.search(
+                new MatchSearchCriteria(Sport.BASKETBALL, null, null, null, null), null, 21));
+        assertIndexed("search by sport after cursor", () -> matchRepository.search(
+                new MatchSearchCriteria(Sport.BASKETBALL, null, null, null, null), after, 21));
+        assertIndexed("search by date range", () -> matchRepository.search(new MatchSearchCriteria(
+                null, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 7), null, null), null, 21));
+        assertIndexed("search by team and specifier", () -> matchRepository.search(
+                new MatchSearchCriteria(null, null, null, match.getTeamB(), Specifier.X), null, 21));
+        assertIndexed("findRowsByMatchIdIn", () -> matchOddRepository.findRowsByMatchIdIn(List.of(matchId, matchId + 50)));
+    }
+
+    @Test
+    public void oddLookupsShouldUseIndexes() {
+        Match match = matchRepository.findById(matchId).orElseThrow();
+
+        assertIndexed("findByMatch", () -> matchOddRepository.findByMatch(match));
+        assertIndexed("existsByMatchAndSpecifier", () -> matchOddRepository.existsByMatchAndSpecifier(match, Specifier.X));
+        assertIndexed("existsByIdAndMatchId", () -> matchOddRepository.existsByIdAndMatchId(oddId, matchId));
+        assertIndexed("findSpecifiersByMatchIds", () -> matchOddRepository.findSpecifiersByMatchIds(List.of(matchId, matchId + 50)));
+        assertIndexed("updateOdd", () -> inRolledBackTransaction(() -> matchOddRepository.updateOdd(matchId, oddId, 1.7)));
+        assertIndexed("compareAndSetOdd", () -> inRolledBackTransaction(() -> matchOddRepository.compareAndSetOdd(matchId, oddId, 1.5, 1.7)));
+        assertIndexed("updateOdds", () -> inRolledBackTransaction(() -> matchOddRepository.updateOdds(Map.of(matchId, Map.of(oddId, 1.7)))));
+        assertIndexed("upsertAll", () -> inRolledBackTransaction(() -> matchOddRepository.upsertAll(List.of(new OddUpsertDto(matchId, Specifier.ONE, 1.7)))));
+        assertIndexed("deleteByMatchIdAndId", () -> inRolledBackTransaction(() -> matchOddRepository.deleteByMatchIdAndId(matchId, oddId)));
+    }
+
+    @Test
+    public void historyLookupsShouldUseIndexes() {
+        assertIndexed("findByMatchId", () -> oddsHistoryRepository.findByMatchId(matchId, null, null));
+        assertIndexed("findByMatchId between", () -> oddsHistoryRepository.findByMatchId(matchId,
+                Instant.parse("2025-01-01T00:02:00Z"), Instant.parse("2025-01-01T00:04:00Z")));
+    }
+
+    private void inRolledBackTransaction(Runnable action) {
+        transactionTemplate.executeWithoutResult(status -> {
+            action.run();
+            status.setRollbackOnly();
+        });
+    }
+
+    private void assertIndexed(String name, Runnable query) {
+        StatementCaptureConfiguration.captured.clear();
+        query.run();
+        List<CapturedStatement> statements = List.copyOf(StatementCaptureConfiguration.captured);
+        assertFalse(statements.isEmpty(), name + " sent no statement");
+
+        for (CapturedStatement statement : statements) {
+            String plan = explain(statement);
+            if (plan.contains("Seq Scan")) {
+                fail(String.format("%s scans sequentially:%n%s%n%s", name, statement.sql(), plan));
+            }
+        }
+    }
+
+    private String explain(CapturedStatement statement) {
+        DataSource target = ((DelegatingDataSource) dataSource).getTargetDataSource();
+        try (Connection con = target.getConnection();
+             PreparedStatement ps = con.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (ParameterSetter setter : statement.parameters()) {
+                setter.method().invoke(ps, setter.args());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append(System.lineSeparator());
+                }
+            }
+            return plan.toString();
+        } catch (SQLException | ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not explain " + statement.sql(), e);
+        }
+    }
+
+    private record CapturedStatement(String sql, List<ParameterSetter> parameters) {
+    }
+
+    private record ParameterSetter(Method method, Object[] args) {
+    }
+
+    /**
+     * Wraps the data source so every prepared statement that is executed is recorded with its parameters.
+     */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class StatementCaptureConfiguration {
+
+        static final List<CapturedStatement> captured = new CopyOnWriteArrayList<>();
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return capturing(super.getConnection());
+                        }
+
+                        @Override
+                        public Connection getConnection(String username, String password) throws SQLException {
+                            return capturing(super.getConnection(username, password));
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection capturing(Connection connection) {
+            return proxy(Connection.class, connection, (target, method, args) -> {
+                Object result = method.invoke(target, args);
+                if (method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+                    return capturing((PreparedStatement) result, sql);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement capturing(PreparedStatement statement, String sql) {
+            List<ParameterSetter> parameters = new ArrayList<>();
+            boolean[] recorded = {false};
+            return proxy(PreparedStatement.class, statement, (target, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    parameters.add(new ParameterSetter(method, args.clone()));
+                } else if (!recorded[0] && (name.startsWith("execute") || name.equals("addBatch")) && (args == null || args.length == 0)) {
+                    // a batch is explained with the parameters of its first row
+                    recorded[0] = true;
+                    captured.add(new CapturedStatement(sql, List.copyOf(parameters)));
+                }
+                return method.invoke(target, args);
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, Interceptor interceptor) {
+            InvocationHandler handler = (p, method, args) -> {
+                try {
+                    return interceptor.invoke(target, method, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        private interface Interceptor {
+            Object invoke(Object target, Method method, Object[] args) throws Throwable;
+        }
+    }
+}
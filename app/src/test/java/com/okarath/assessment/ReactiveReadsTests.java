@@ -0,0 +1,92 @@
+package com.okarath.assessment;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.repository.MatchRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.reads.reactive.enabled=true")
+@AutoConfigureMockMvc
+@Import({TestcontainersConfiguration.class})
+public class ReactiveReadsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void shouldReturnTheSamePayloadsAsTheJpaReads() throws Exception {
+        Match match = Match.builder()
+                .teamA("Reactive A")
+                .teamB("Reactive B")
+                .description("Reactive A-Reactive B")
+                .matchDate(LocalDate.of(2025, 4, 2))
+                .matchTime(LocalTime.of(19, 45))
+                .sport(Sport.FOOTBALL)
+                .build();
+        match.setOdds(Set.of(
+                MatchOdd.builder().match(match).specifier(Specifier.ONE).odd(1.8).build(),
+                MatchOdd.builder().match(match).specifier(Specifier.X).odd(3.2).build()));
+        Long id = matchRepository.save(match).getId();
+
+        MatchDto jpaMatch = objectMapper.readValue(mockMvc.perform(get("/api/v1/matches/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), MatchDto.class);
+        MatchDto reactiveMatch = objectMapper.readValue(asyncGet("/api/v1/reactive/matches/{id}", id), MatchDto.class);
+        assertEquals(jpaMatch, reactiveMatch);
+
+        TypeReference<Set<OddDto>> oddsType = new TypeReference<>() {};
+        Set<OddDto> jpaOdds = objectMapper.readValue(mockMvc.perform(get("/api/v1/matches/{id}/odds", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), oddsType);
+        Set<OddDto> reactiveOdds = objectMapper.readValue(asyncGet("/api/v1/reactive/matches/{id}/odds", id), oddsType);
+        assertEquals(jpaOdds, reactiveOdds);
+    }
+
+    @Test
+    public void shouldReturnNotFoundForMissingMatch() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/matches/{id}/odds", 987654))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    private String asyncGet(String path, Long id) throws Exception {
+        MvcResult result = mockMvc.perform(get(path, id))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,104 @@
+package com.okarath.assessment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.routing.ReplicaLagMonitor;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routing against a second, independent database standing in for a replica: it has the schema but none of the
+ * primary's data, so which database answered shows where a read was sent.
+ */
+@SpringBootTest(properties = {"app.read-replicas.enabled=true", "app.read-replicas.lag-check-interval=100ms"})
+@AutoConfigureMockMvc
+@Import({TestcontainersConfiguration.class})
+public class ReadReplicaRoutingTests {
+
+    private static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+            .withDatabaseName("replica")
+            .withUsername("user")
+            .withPassword("pass");
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        replica.start();
+        Flyway.configure().dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()).load().migrate();
+        registry.add("app.read-replicas.urls", replica::getJdbcUrl);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void shouldReadFromReplicaUnlessTheClientJustWrote() throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (replicaLagMonitor.currentReplicas().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(replicaLagMonitor.currentReplicas().isEmpty());
+
+        new JdbcTemplate(new DriverManagerDataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())).update("""
+                INSERT INTO matches (id, description, match_date, match_time, team_a, team_b, sport)
+                VALUES (424242, 'Replica only', DATE '2025-05-01', TIME '20:00', 'Replica A', 'Replica B', 0)""");
+
+        mockMvc.perform(get("/api/v1/matches/424242"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Replica only"));
+        // the odds cache is only ever filled from the primary, which does not have this match
+        mockMvc.perform(get("/api/v1/matches/424242/odds"))
+                .andExpect(status().isNotFound());
+
+        MatchDto match = MatchDto.builder()
+                .teamA("Primary A")
+                .teamB("Primary B")
+                .sport(Sport.FOOTBALL)
+                .date("01/05/2025")
+                .time("20:00")
+                .build();
+        MvcResult created = mockMvc.perform(post("/api/v1/matches")
+                        .content(objectMapper.writeValueAsString(match))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String location = created.getResponse().getHeader("Location");
+        Cookie readPrimary = created.getResponse().getCookie("read-primary-until");
+        assertNotNull(readPrimary);
+
+        mockMvc.perform(get(location).cookie(readPrimary))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.teamA").value("Primary A"));
+        mockMvc.perform(get(location))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(location).cookie(new Cookie("read-primary-until", Long.toString(System.currentTimeMillis() - 1))))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,73 @@
+package com.okarath.assessment;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upgrades a database created by the former {@code db-postgres/create.sql} init script, which has the tables but no
+ * Flyway history, with the settings of {@code application.yml}.
+ */
+@Testcontainers
+public class SchemaUpgradeTests {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+            .withDatabaseName("schema-upgrade")
+            .withUsername("user")
+            .withPassword("pass");
+
+    @Test
+    public void shouldBaselineAndUpgradeDatabaseCreatedByInitScript() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+        jdbcTemplate.execute("""
+                CREATE SCHEMA IF NOT EXISTS "public";
+                CREATE TABLE "public".matches (
+                  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+                   description VARCHAR(255),
+                   match_date date NOT NULL,
+                   match_time TIME WITHOUT TIME ZONE NOT NULL,
+                   team_a VARCHAR(255) NOT NULL,
+                   team_b VARCHAR(255) NOT NULL,
+                   sport INTEGER NOT NULL,
+                   CONSTRAINT pk_match PRIMARY KEY (id)
+                );
+                ALTER TABLE "public".matches ADD CONSTRAINT uc_1213803dd8c00ebdef12559d6 UNIQUE (team_a, team_b, sport, match_date);
+                CREATE TABLE "public".match_odds (
+                  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+                   match_id BIGINT NOT NULL,
+                   specifier VARCHAR(255) NOT NULL,
+                   odd DOUBLE PRECISION NOT NULL,
+                   CONSTRAINT pk_match_odd PRIMARY KEY (id)
+                );
+                ALTER TABLE "public".match_odds ADD CONSTRAINT FK_MATCH_ODD_ON_MATCHID FOREIGN KEY (match_id) REFERENCES "public".matches (id);
+                INSERT INTO matches (description, match_date, match_time, team_a, team_b, sport)
+                VALUES ('Old A-Old B', DATE '2024-05-01', TIME '20:00', 'Old A', 'Old B', 0);
+                INSERT INTO match_odds (match_id, specifier, odd) VALUES (1, 'ONE', 1.5);""");
+
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertEquals("6", jdbcTemplate.queryForObject(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank DESC LIMIT 1", String.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM matches WHERE id = 1", Long.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT count(*) FROM odds_history", Long.class));
+        // the pooled-lo sequences continue after the rows the identity columns created
+        long nextMatchId = jdbcTemplate.queryForObject("""
+                INSERT INTO matches (description, match_date, match_time, team_a, team_b, sport)
+                VALUES ('New A-New B', DATE '2024-05-02', TIME '20:00', 'New A', 'New B', 0) RETURNING id""", Long.class);
+        assertTrue(nextMatchId > 1);
+    }
+}
@@ -16,8 +16,7 @@ class TestcontainersConfiguration {
 		return new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
 				.withDatabaseName("integration-tests")
 				.withUsername("user")
-				.withPassword("pass")
-				.withInitScript("create-test.sql");
+				.withPassword("pass");
 	}
 
 //	@Bean
@@ -0,0 +1,190 @@
+package com.okarath.assessment;
+
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.repository.MatchRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares throughput and p99 latency of the match listing between the default platform-thread mode
+ * and the {@code virtual-threads} profile, at rising numbers of concurrent closed-loop clients.
+ * Excluded from the default build, run with {@code mvn -P java21,load-tests test} on a Java 21 JDK.
+ * The results are printed and written to {@code target/virtual-threads-load.csv}.
+ */
+@Tag("load")
+@Testcontainers
+public class VirtualThreadsLoadTests {
+
+    private static final int[] CONCURRENCY = {50, 200, 800};
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(20);
+    private static final int MATCHES = 500;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+            .withDatabaseName("load-tests")
+            .withUsername("user")
+            .withPassword("pass");
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Test
+    public void compareThroughputAndLatency() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need a Java 21+ runtime");
+
+        List<String> rows = new ArrayList<>();
+        rows.add("mode,concurrency,requests,errors,throughput_per_s,p50_ms,p99_ms");
+        for (String mode : List.of("platform-threads", "virtual-threads")) {
+            try (ConfigurableApplicationContext context = start(mode)) {
+                seed(context.getBean(MatchRepository.class));
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                URI uri = URI.create("http://localhost:" + port + "/api/v1/matches?page=0&size=20");
+
+                for (int concurrency : CONCURRENCY) {
+                    run(uri, concurrency, WARMUP);
+                    Result result = run(uri, concurrency, MEASUREMENT);
+                    rows.add(String.format("%s,%d,%d,%d,%.1f,%.2f,%.2f", mode, concurrency, result.requests(), result.errors(),
+                            result.requests() / (double) MEASUREMENT.toSeconds(), result.percentile(0.50), result.percentile(0.99)));
+                    assertEquals(0, result.errors(), () -> mode + " failed requests at concurrency " + concurrency);
+                }
+            }
+        }
+
+        rows.forEach(System.out::println);
+        Files.write(Path.of("target", "virtual-threads-load.csv"), rows);
+    }
+
+    private ConfigurableApplicationContext start(String mode) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(MatchOddsAppApplication.class);
+        if (mode.equals("virtual-threads")) {
+            builder.profiles("virtual-threads");
+        }
+        // passed as arguments, default properties would lose against application.yml
+        return builder.run("--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword());
+    }
+
+    private void seed(MatchRepository matchRepository) {
+        if (matchRepository.count() > 0) return;
+
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < MATCHES; i++) {
+            Match match = Match.builder()
+                    .teamA("Load A" + i)
+                    .teamB("Load B" + i)
+                    .description("Load match " + i)
+                    .matchDate(LocalDate.of(2024, 5, 1).plusDays(i % 60))
+                    .matchTime(LocalTime.of(12 + i % 10, 0))
+                    .sport(Sport.FOOTBALL)
+                    .build();
+            Set<MatchOdd> odds = new HashSet<>();
+            for (Specifier specifier : Specifier.values()) {
+                odds.add(MatchOdd.builder().match(match).specifier(specifier).odd(1.5).build());
+            }
+            match.setOdds(odds);
+            matches.add(match);
+        }
+        matchRepository.saveAll(matches);
+    }
+
+    private Result run(URI uri, int concurrency, Duration duration) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> client(request, deadline)));
+            }
+            Result total = new Result(new long[0], 0);
+            for (Future<Result> future : futures) {
+                total = total.merge(future.get());
+            }
+            return total;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private Result client(HttpRequest request, long deadline) throws InterruptedException {
+        long[] latencies = new long[1024];
+        int count = 0;
+        int errors = 0;
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    errors++;
+                    continue;
+                }
+            } catch (IOException e) {
+                errors++;
+                continue;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return new Result(Arrays.copyOf(latencies, count), errors);
+    }
+
+    private record Result(long[] latencies, int errors) {
+
+        long requests() {
+            return latencies.length;
+        }
+
+        Result merge(Result other) {
+            long[] merged = Arrays.copyOf(latencies, latencies.length + other.latencies.length);
+            System.arraycopy(other.latencies, 0, merged, latencies.length, other.latencies.length);
+            return new Result(merged, errors + other.errors);
+        }
+
+        double percentile(double percentile) {
+            if (latencies.length == 0) return 0;
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.okarath.assessment.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveLimitTest {
+
+    private static final long FAST = 2_000_000;
+    private static final long SLOW = 20_000_000;
+
+    @Test
+    public void shouldGrowWhileLatencyStaysAtTheBaseline() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 2, 100);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST, limit.limit());
+        }
+
+        assertTrue(limit.limit() > 10, () -> "limit " + limit.limit());
+    }
+
+    @Test
+    public void shouldShrinkWhenLatencyRisesAndRecoverAfterwards() {
+        AdaptiveLimit limit = new AdaptiveLimit(50, 2, 100);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(FAST, limit.limit());
+        }
+        int before = limit.limit();
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(SLOW, limit.limit());
+        }
+        int slowed = limit.limit();
+        assertTrue(slowed < before / 2, () -> before + " -> " + slowed);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(FAST, limit.limit());
+        }
+        assertTrue(limit.limit() > slowed, () -> slowed + " -> " + limit.limit());
+    }
+
+    @Test
+    public void shouldStayWithinBounds() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 2, 12);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST, limit.limit());
+        }
+        assertEquals(12, limit.limit());
+
+        for (int i = 0; i < 500; i++) {
+            limit.onSample(FAST * (i + 2), limit.limit());
+        }
+        assertEquals(2, limit.limit());
+    }
+
+    @Test
+    public void shouldNotChangeWhileFarBelowTheLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(40, 2, 100);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(i % 2 == 0 ? FAST : SLOW, 1);
+        }
+
+        assertEquals(40, limit.limit());
+    }
+}
@@ -0,0 +1,91 @@
+package com.okarath.assessment.admission;
+
+import com.okarath.assessment.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AdmissionLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionLimiter admissionLimiter;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        admissionLimiter = new AdmissionLimiter(Map.of(
+                EndpointClass.ODDS_WRITE, Duration.ofSeconds(5),
+                EndpointClass.LIST_READ, Duration.ofMillis(50)), 1, 1, 1, Duration.ofSeconds(2), meterRegistry);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldRejectOnceTheQueueBudgetIsSpent() {
+        AdmissionLimiter.Permit permit = admissionLimiter.acquire(EndpointClass.LIST_READ);
+
+        TooManyRequestsException thrown = assertThrows(TooManyRequestsException.class, () -> admissionLimiter.acquire(EndpointClass.LIST_READ));
+        assertEquals(Duration.ofSeconds(2), thrown.getRetryAfter());
+        assertEquals(1, meterRegistry.get("admission.rejected").tag("class", "LIST_READ").counter().count());
+
+        admissionLimiter.release(permit);
+        assertNotNull(admissionLimiter.acquire(EndpointClass.LIST_READ));
+    }
+
+    @Test
+    public void shouldLimitEachClassSeparately() {
+        admissionLimiter.acquire(EndpointClass.LIST_READ);
+
+        assertNotNull(admissionLimiter.acquire(EndpointClass.POINT_READ));
+        assertEquals(1.0, meterRegistry.get("admission.in-flight").tag("class", "POINT_READ").gauge().value());
+    }
+
+    @Test
+    public void shouldHandFreedSlotToWaitingRequest() throws Exception {
+        AdmissionLimiter.Permit permit = admissionLimiter.acquire(EndpointClass.ODDS_WRITE);
+        Future<AdmissionLimiter.Permit> waiting = executor.submit(() -> admissionLimiter.acquire(EndpointClass.ODDS_WRITE));
+        awaitWaiting(waiting);
+
+        admissionLimiter.release(permit);
+
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldNotAdmitListReadsWhileOddsWritesWait() throws Exception {
+        AdmissionLimiter.Permit oddsWrite = admissionLimiter.acquire(EndpointClass.ODDS_WRITE);
+        Future<AdmissionLimiter.Permit> waitingOddsWrite = executor.submit(() -> admissionLimiter.acquire(EndpointClass.ODDS_WRITE));
+        awaitWaiting(waitingOddsWrite);
+
+        // list reads have a free slot of their own, but an odds write is queued
+        assertThrows(TooManyRequestsException.class, () -> admissionLimiter.acquire(EndpointClass.LIST_READ));
+
+        admissionLimiter.release(oddsWrite);
+        assertNotNull(waitingOddsWrite.get(5, TimeUnit.SECONDS));
+        assertNotNull(admissionLimiter.acquire(EndpointClass.LIST_READ));
+    }
+
+    private static void awaitWaiting(Future<?> future) throws InterruptedException {
+        // the queued request has nothing to observe from outside, give it time to reach the wait
+        Thread.sleep(100);
+        assertFalse(future.isDone());
+    }
+}
@@ -0,0 +1,72 @@
+package com.okarath.assessment.cache;
+
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.dto.VersionedOdds;
+import com.okarath.assessment.entity.Specifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CaffeineOddsCacheTest {
+
+    private OddsCache oddsCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        oddsCache = new CaffeineOddsCache(100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void shouldLoadOnceAndCountHitsAndMisses() {
+        oddsCache.get(1L, this::load);
+        oddsCache.get(1L, this::load);
+        oddsCache.get(2L, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, oddsCache.stats().hitCount());
+        assertEquals(2, oddsCache.stats().missCount());
+        assertEquals(2, oddsCache.stats().size());
+    }
+
+    @Test
+    public void shouldEvictImmediatelyWithoutTransaction() {
+        oddsCache.get(1L, this::load);
+
+        oddsCache.evictAfterCommit(1L);
+        oddsCache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldEvictAll() {
+        oddsCache.get(1L, this::load);
+        oddsCache.get(2L, this::load);
+
+        oddsCache.evictAll();
+        oddsCache.get(1L, this::load);
+        oddsCache.get(2L, this::load);
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void shouldReturnImmutableOdds() {
+        Set<OddDto> odds = oddsCache.get(1L, this::load).odds();
+
+        assertThrows(UnsupportedOperationException.class, odds::clear);
+    }
+
+    private VersionedOdds load(Long matchId) {
+        loads.incrementAndGet();
+        return new VersionedOdds(0, Set.of(new OddDto(matchId, Specifier.ONE, 1.5)));
+    }
+}
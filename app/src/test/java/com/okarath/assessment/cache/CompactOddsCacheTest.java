@@ -0,0 +1,156 @@
+package com.okarath.assessment.cache;
+
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.dto.VersionedOdds;
+import com.okarath.assessment.entity.Specifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompactOddsCacheTest {
+
+    private CompactOddsCache oddsCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        oddsCache = new CompactOddsCache(2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void shouldReturnTheLoadedOdds() {
+        VersionedOdds odds = oddsCache.get(1L, this::load);
+        VersionedOdds cached = oddsCache.get(1L, this::load);
+
+        assertEquals(odds(1L), odds.odds());
+        assertEquals(odds(1L), cached.odds());
+        assertEquals(7, cached.version());
+        assertEquals(1, oddsCache.stats().hitCount());
+        assertEquals(1, oddsCache.stats().missCount());
+    }
+
+    @Test
+    public void shouldReturnEmptyOddsForMatchWithoutOdds() {
+        oddsCache.get(1L, id -> new VersionedOdds(0, Set.of()));
+
+        assertEquals(Set.of(), oddsCache.get(1L, this::load).odds());
+    }
+
+    @Test
+    public void shouldEvictImmediatelyWithoutTransaction() {
+        oddsCache.get(1L, this::load);
+
+        oddsCache.evictAfterCommit(1L);
+        oddsCache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldNotStoreALoadThatOverlappedAnEviction() {
+        oddsCache.get(1L, id -> {
+            oddsCache.evict(1L);
+            return load(id);
+        });
+        oddsCache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, oddsCache.stats().hitCount());
+    }
+
+    @Test
+    public void shouldStoreALoadThatOverlappedAnEvictionOfAnotherMatch() {
+        oddsCache.get(1L, id -> {
+            oddsCache.evict(2L);
+            return load(id);
+        });
+        oddsCache.get(1L, this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, oddsCache.stats().hitCount());
+    }
+
+    @Test
+    public void shouldNotStoreALoadThatOverlappedAnEvictionOfAllMatches() {
+        oddsCache.get(1L, id -> {
+            oddsCache.evictAll();
+            return load(id);
+        });
+        oddsCache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldStoreLaterLoadAfterAFailedOne() {
+        assertThrows(IllegalStateException.class, () -> oddsCache.get(1L, id -> {
+            throw new IllegalStateException("down");
+        }));
+        oddsCache.get(1L, this::load);
+        oddsCache.get(1L, this::load);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void shouldReuseSlotsWhenFull() {
+        oddsCache.get(1L, this::load);
+        oddsCache.get(2L, this::load);
+        oddsCache.get(3L, this::load);
+
+        assertEquals(2, oddsCache.stats().size());
+        assertEquals(1, oddsCache.stats().evictionCount());
+        assertEquals(odds(3L), oddsCache.get(3L, this::load).odds());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void shouldEvictAllAndFreeTheirSlots() {
+        oddsCache.get(1L, this::load);
+        oddsCache.get(2L, this::load);
+        oddsCache.get(3L, this::load);
+
+        oddsCache.evictAll();
+
+        assertEquals(0, oddsCache.stats().size());
+        oddsCache.get(1L, this::load);
+        oddsCache.get(2L, this::load);
+        assertEquals(2, oddsCache.stats().size());
+        assertEquals(1, oddsCache.stats().evictionCount());
+        assertEquals(odds(2L), oddsCache.get(2L, this::load).odds());
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void shouldExpireAfterWrite() {
+        oddsCache = new CompactOddsCache(2, Duration.ZERO);
+
+        oddsCache.get(1L, this::load);
+        oddsCache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldReturnImmutableOdds() {
+        Set<OddDto> odds = oddsCache.get(1L, this::load).odds();
+
+        assertThrows(UnsupportedOperationException.class, odds::clear);
+    }
+
+    private VersionedOdds load(Long matchId) {
+        loads.incrementAndGet();
+        return new VersionedOdds(7, odds(matchId));
+    }
+
+    private Set<OddDto> odds(Long matchId) {
+        return Set.of(new OddDto(matchId * 3, Specifier.ONE, 1.5), new OddDto(matchId * 3 + 2, Specifier.X, 3.25));
+    }
+}
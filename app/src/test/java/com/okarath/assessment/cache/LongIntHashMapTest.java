@@ -0,0 +1,45 @@
+package com.okarath.assessment.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void shouldBehaveLikeAHashMap() {
+        LongIntHashMap map = new LongIntHashMap(1000);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2000);
+            if (random.nextBoolean() && expected.size() < 1000 || expected.containsKey(key)) {
+                int value = random.nextInt(Integer.MAX_VALUE);
+                map.put(key, value);
+                expected.put(key, value);
+            } else {
+                assertEquals(expected.getOrDefault(key, LongIntHashMap.MISSING), map.remove(key));
+                expected.remove(key);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long key = 0; key < 2000; key++) {
+            assertEquals(expected.getOrDefault(key, LongIntHashMap.MISSING), map.get(key));
+        }
+    }
+
+    @Test
+    public void shouldRejectEntriesBeyondMaximumSize() {
+        LongIntHashMap map = new LongIntHashMap(2);
+        map.put(1, 1);
+        map.put(2, 2);
+
+        assertThrows(IllegalStateException.class, () -> map.put(3, 3));
+    }
+}
@@ -0,0 +1,154 @@
+package com.okarath.assessment.coalescing;
+
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.dto.VersionedOdds;
+import com.okarath.assessment.entity.Specifier;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PendingOddsBufferTest {
+
+    private final PendingOddsBuffer buffer = new PendingOddsBuffer(true, Duration.ofHours(1), 2, 3);
+
+    @Test
+    public void shouldKeepOnlyTheLatestValuePerOdd() {
+        buffer.offer(1L, 10L, 1.5);
+        buffer.offer(1L, 10L, 1.6);
+        buffer.offer(1L, 11L, 2.5);
+
+        assertEquals(2, buffer.size());
+        assertEquals(Map.of(1L, Map.of(10L, 1.6, 11L, 2.5)), buffer.snapshot());
+    }
+
+    @Test
+    public void shouldOverlayPendingValues() {
+        VersionedOdds odds = new VersionedOdds(4, Set.of(new OddDto(10L, Specifier.ONE, 1.5), new OddDto(11L, Specifier.X, 3.0)));
+        assertSame(odds, buffer.overlay(1L, odds));
+
+        buffer.offer(1L, 10L, 1.7);
+        VersionedOdds overlaid = buffer.overlay(1L, odds);
+
+        assertTrue(overlaid.pending());
+        assertEquals(4, overlaid.version());
+        assertEquals(Set.of(new OddDto(10L, Specifier.ONE, 1.7), new OddDto(11L, Specifier.X, 3.0)), overlaid.odds());
+    }
+
+    @Test
+    public void shouldRejectNewOddsWhenFullButStillReplacePendingOnes() {
+        assertTrue(buffer.offer(1L, 10L, 1.5));
+        assertTrue(buffer.offer(2L, 20L, 1.5));
+        assertTrue(buffer.offer(3L, 30L, 1.5));
+
+        assertFalse(buffer.offer(4L, 40L, 1.5));
+        assertTrue(buffer.offer(1L, 10L, 1.6));
+    }
+
+    @Test
+    public void shouldKeepValuesReplacedWhileBeingWritten() {
+        buffer.offer(1L, 10L, 1.5);
+        buffer.offer(1L, 11L, 2.5);
+        Map<Long, Map<Long, Double>> written = buffer.snapshot();
+        buffer.offer(1L, 10L, 1.6);
+
+        buffer.removeAfterCommit(written);
+
+        assertEquals(1, buffer.size());
+        assertEquals(Map.of(1L, Map.of(10L, 1.6)), buffer.snapshot());
+    }
+
+    @Test
+    public void shouldSkipMatchesClaimedByAnotherTransaction() throws Exception {
+        buffer.offer(1L, 10L, 1.5);
+        buffer.offer(2L, 20L, 2.5);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(Map.of(1L, Map.of(10L, 1.5)), buffer.claim(List.of(1L)));
+
+            // the flusher runs in its own transaction on its own thread
+            Future<Map<Long, Map<Long, Double>>> flush = Executors.newSingleThreadExecutor().submit(buffer::claimAll);
+            assertEquals(Map.of(2L, Map.of(20L, 2.5)), flush.get(1, TimeUnit.SECONDS));
+        } finally {
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        // a rolled back claim leaves its values pending for the next writer
+        assertEquals(Map.of(1L, Map.of(10L, 1.5), 2L, Map.of(20L, 2.5)), buffer.claimAll());
+    }
+
+    @Test
+    public void shouldMakeSynchronousWriterWaitForFlushOfTheSameMatch() throws Exception {
+        buffer.offer(1L, 10L, 1.5);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        Future<?> flush = executor.submit(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                Map<Long, Map<Long, Double>> values = buffer.claimAll();
+                claimed.countDown();
+                written.await();
+                buffer.removeAfterCommit(values);
+                complete(TransactionSynchronization.STATUS_COMMITTED);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        claimed.await();
+
+        Future<Map<Long, Map<Long, Double>>> update = Executors.newSingleThreadExecutor().submit(() -> buffer.claim(List.of(1L)));
+        assertThrows(TimeoutException.class, () -> update.get(200, TimeUnit.MILLISECONDS));
+
+        written.countDown();
+        flush.get(1, TimeUnit.SECONDS);
+        // the flush wrote the value, so the synchronous writer has nothing left to write before its own value
+        assertEquals(Map.of(), update.get(1, TimeUnit.SECONDS));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void shouldSignalFlushWhenTheFlushSizeIsReached() {
+        buffer.offer(1L, 10L, 1.5);
+        buffer.offer(2L, 20L, 1.5);
+
+        // the flush interval is an hour, only the size signal can end the wait
+        assertTimeout(Duration.ofSeconds(1), buffer::awaitFlushDue);
+    }
+
+    @Test
+    public void shouldNotBufferWhenDisabled() {
+        PendingOddsBuffer disabled = new PendingOddsBuffer(false, Duration.ofMillis(100), 2, 3);
+
+        assertFalse(disabled.offer(1L, 10L, 1.5));
+        assertEquals(0, disabled.size());
+    }
+
+    private static void complete(int status) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        }
+        TransactionSynchronizationUtils.triggerAfterCompletion(status);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
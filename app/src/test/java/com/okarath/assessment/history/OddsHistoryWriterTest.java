@@ -0,0 +1,107 @@
+package com.okarath.assessment.history;
+
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.exception.ServiceUnavailableException;
+import com.okarath.assessment.repository.OddsHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class OddsHistoryWriterTest {
+
+    private final OddsHistoryRepository oddsHistoryRepository = mock(OddsHistoryRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OddsHistoryWriter writer;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        writer.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void shouldWriteQueuedEntriesInOneBatch() {
+        writer = new OddsHistoryWriter(oddsHistoryRepository, meterRegistry, 10, 100, Duration.ofMillis(10));
+        List<OddsHistoryEntry> entries = List.of(entry(1.5), entry(1.6), entry(1.7));
+
+        writer.record(entries.subList(0, 1));
+        writer.record(entries.subList(1, 3));
+        assertEquals(3, meterRegistry.get("odds.history.pending").gauge().value());
+        writer.start();
+
+        verify(oddsHistoryRepository, timeout(1000)).insertAll(entries);
+        await(() -> meterRegistry.get("odds.history.pending").gauge().value() == 0);
+    }
+
+    @Test
+    public void shouldRejectEntriesWhenTheQueueIsFull() {
+        writer = new OddsHistoryWriter(oddsHistoryRepository, meterRegistry, 2, 100, Duration.ofMillis(10));
+
+        writer.record(List.of(entry(1.5), entry(1.6)));
+
+        assertThrows(ServiceUnavailableException.class, () -> writer.record(List.of(entry(1.7))));
+    }
+
+    @Test
+    public void shouldQueueEntriesOnlyAfterCommit() {
+        writer = new OddsHistoryWriter(oddsHistoryRepository, meterRegistry, 1, 100, Duration.ofMillis(10));
+        writer.start();
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer.record(List.of(entry(1.5)));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // the rolled back reservation is released, so a full queue of one has room again
+        TransactionSynchronizationManager.initSynchronization();
+        writer.record(List.of(entry(1.6)));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(oddsHistoryRepository, timeout(1000)).insertAll(List.of(entry(1.6)));
+        verify(oddsHistoryRepository, times(1)).insertAll(any());
+    }
+
+    @Test
+    public void shouldRetryFailedWrites() {
+        writer = new OddsHistoryWriter(oddsHistoryRepository, meterRegistry, 10, 100, Duration.ofMillis(10));
+        doThrow(new DataAccessResourceFailureException("down")).doNothing().when(oddsHistoryRepository).insertAll(any());
+        writer.start();
+
+        writer.record(List.of(entry(1.5)));
+
+        verify(oddsHistoryRepository, timeout(1000).times(2)).insertAll(List.of(entry(1.5)));
+    }
+
+    private static OddsHistoryEntry entry(double odd) {
+        return new OddsHistoryEntry(1L, Specifier.ONE, odd, Instant.EPOCH);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,130 @@
+package com.okarath.assessment.idempotency;
+
+import com.okarath.assessment.exception.ResourceConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IdempotencyKeysTest {
+
+    private IdempotencyKeys idempotencyKeys;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        idempotencyKeys = new IdempotencyKeys(100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void shouldReturnTheFirstResultForTheSameKey() {
+        assertEquals(1, idempotencyKeys.execute("key", "request", runs::incrementAndGet));
+        assertEquals(1, idempotencyKeys.execute("key", "request", runs::incrementAndGet));
+        assertEquals(2, idempotencyKeys.execute("other", "request", runs::incrementAndGet));
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void shouldRejectTheSameKeyForADifferentRequest() {
+        idempotencyKeys.execute("key", "request", runs::incrementAndGet);
+
+        assertThrows(ResourceConflictException.class, () -> idempotencyKeys.execute("key", "other request", runs::incrementAndGet));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void shouldNotRememberFailures() {
+        assertThrows(IllegalStateException.class, () -> idempotencyKeys.execute("key", "request", () -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        assertEquals(1, idempotencyKeys.execute("key", "request", runs::incrementAndGet));
+    }
+
+    @Test
+    public void shouldRunConcurrentRequestsWithTheSameKeyOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> idempotencyKeys.execute("key", "request", () -> {
+                started.countDown();
+                await(release);
+                return runs.incrementAndGet();
+            }));
+            started.await();
+            Future<Integer> retry = executor.submit(() -> idempotencyKeys.execute("key", "request", runs::incrementAndGet));
+            release.countDown();
+
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, retry.get(5, TimeUnit.SECONDS));
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNotBlockOtherKeysWhileAnActionRuns() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> slow = executor.submit(() -> idempotencyKeys.execute("slow", "request", () -> {
+                started.countDown();
+                await(release);
+                return runs.incrementAndGet();
+            }));
+            started.await();
+            Future<Integer> other = executor.submit(() -> idempotencyKeys.execute("other", "request", () -> 42));
+
+            assertEquals(42, other.get(5, TimeUnit.SECONDS));
+            release.countDown();
+            assertEquals(1, slow.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRunAWaitingRequestWhenTheFirstOneFails() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> idempotencyKeys.execute("key", "request", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("failed");
+            }));
+            started.await();
+            Future<Integer> retry = executor.submit(() -> idempotencyKeys.execute("key", "request", runs::incrementAndGet));
+            release.countDown();
+
+            assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, retry.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.okarath.assessment.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MatchChangeTest {
+
+    @Test
+    public void shouldParseMatchIdAndVersion() {
+        assertEquals(new MatchChange(42, 3), MatchChange.parse("42:3"));
+    }
+
+    @Test
+    public void shouldParseDeletedMatch() {
+        assertEquals(new MatchChange(42, -1), MatchChange.parse("42:-1"));
+    }
+
+    @Test
+    public void shouldRejectMalformedPayload() {
+        assertThrows(IllegalArgumentException.class, () -> MatchChange.parse("42"));
+        assertThrows(IllegalArgumentException.class, () -> MatchChange.parse("x:1"));
+        assertThrows(IllegalArgumentException.class, () -> MatchChange.parse("1:"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.okarath.assessment.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class QueryCountInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueryCountInterceptor interceptor;
+    private QueryCountInspector inspector;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new QueryCountInterceptor(meterRegistry);
+        inspector = new QueryCountInspector();
+    }
+
+    @Test
+    public void shouldRecordStatementsPerRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/matches/1/odds");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/matches/{matchId}/odds");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+        interceptor.afterCompletion(request, response, null, null);
+
+        DistributionSummary summary = meterRegistry.get(QueryCountInterceptor.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/api/v1/matches/{matchId}/odds")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(2, summary.totalAmount());
+    }
+
+    @Test
+    public void shouldNotCountStatementsOutsideARequest() {
+        inspector.inspect("select 1");
+
+        assertEquals(0, QueryCountInspector.stop());
+    }
+}
@@ -0,0 +1,34 @@
+package com.okarath.assessment.routing;
+
+import com.okarath.assessment.routing.ReplicaLagMonitor.LagState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReplicaLagMonitorTest {
+
+    @Test
+    public void shouldCountServerNotInRecoveryAsCurrent() {
+        assertEquals(0, ReplicaLagMonitor.lagSeconds(new LagState(false, true, false, null)));
+    }
+
+    @Test
+    public void shouldCountCaughtUpStreamingStandbyAsCurrent() {
+        assertEquals(0, ReplicaLagMonitor.lagSeconds(new LagState(true, true, true, 120.0)));
+    }
+
+    @Test
+    public void shouldUseReplayAgeWhileReplaying() {
+        assertEquals(2.5, ReplicaLagMonitor.lagSeconds(new LagState(true, false, true, 2.5)));
+    }
+
+    @Test
+    public void shouldUseReplayAgeOfCaughtUpStandbyWhoseReceiverDisconnected() {
+        assertEquals(120.0, ReplicaLagMonitor.lagSeconds(new LagState(true, true, false, 120.0)));
+    }
+
+    @Test
+    public void shouldCountStandbyThatNeverReplayedAsLagging() {
+        assertEquals(Double.POSITIVE_INFINITY, ReplicaLagMonitor.lagSeconds(new LagState(true, true, false, null)));
+    }
+}
@@ -0,0 +1,125 @@
+package com.okarath.assessment.routing;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private ReplicaRoutingDataSource routing;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setUp() {
+        when(replicaLagMonitor.replicas()).thenReturn(Map.of("replica-1", mock(DataSource.class)));
+        routing = new ReplicaRoutingDataSource(mock(DataSource.class), replicaLagMonitor, Duration.ofSeconds(5));
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void shouldSendReadOnlyTransactionsToAReplica() {
+        when(replicaLagMonitor.pickReplica()).thenReturn(Optional.of("replica-1"));
+        readOnlyTransaction();
+
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void shouldUsePrimaryWithoutTransactionOrReplicaWithinLag() {
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+
+        when(replicaLagMonitor.pickReplica()).thenReturn(Optional.empty());
+        readOnlyTransaction();
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void shouldKeepReadsOfARequestOnPrimaryAfterItWrote() {
+        inRequest();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        Cookie cookie = response.getCookie(ReadYourWrites.COOKIE);
+        assertNotNull(cookie);
+        assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+
+        readOnlyTransaction();
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void shouldKeepReadsOnPrimaryWhileTheWriteCookieIsValid() {
+        request.setCookies(new Cookie(ReadYourWrites.COOKIE, Long.toString(System.currentTimeMillis() + 60_000)));
+        inRequest();
+        readOnlyTransaction();
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void shouldReadFromReplicaOnceTheWriteCookieExpired() {
+        when(replicaLagMonitor.pickReplica()).thenReturn(Optional.of("replica-1"));
+        request.setCookies(new Cookie(ReadYourWrites.COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+        inRequest();
+        readOnlyTransaction();
+
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void shouldReadAllTransactionsOfARequestFromTheSameReplica() {
+        when(replicaLagMonitor.pickReplica()).thenReturn(Optional.of("replica-1"), Optional.of("replica-2"));
+        inRequest();
+        readOnlyTransaction();
+
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+        verify(replicaLagMonitor, times(1)).pickReplica();
+        assertNull(response.getCookie(ReadYourWrites.COOKIE));
+    }
+
+    private void inRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+
+    private void readOnlyTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+}
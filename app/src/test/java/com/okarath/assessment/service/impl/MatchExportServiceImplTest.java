@@ -0,0 +1,100 @@
+package com.okarath.assessment.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.MatchOddRow;
+import com.okarath.assessment.dto.MatchRow;
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.mapper.MatchMapper;
+import com.okarath.assessment.repository.MatchExportRepository;
+import com.okarath.assessment.service.MatchExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class MatchExportServiceImplTest {
+
+    @Mock
+    private MatchExportRepository matchExportRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MatchExportService matchExportService;
+
+    private final MatchRow withOdds = new MatchRow(1L, LocalDate.of(2025, 2, 21), LocalTime.of(21, 30), "OSFP-PAO", "OSFP", "PAO", Sport.BASKETBALL);
+    private final MatchRow withoutOdds = new MatchRow(2L, LocalDate.of(2025, 4, 15), LocalTime.of(17, 30), "PAOK-PAO", "PAOK", "PAO", Sport.FOOTBALL);
+
+    @BeforeEach
+    public void setUp() {
+        matchExportService = new MatchExportServiceImpl(matchExportRepository, objectMapper, new MatchMapper());
+    }
+
+    @Test
+    public void shouldWriteOneMatchDtoPerLine() throws IOException {
+        doAnswer(invocation -> {
+            BiConsumer<MatchRow, MatchOddRow> consumer = invocation.getArgument(0);
+            consumer.accept(withOdds, new MatchOddRow(1L, 10L, Specifier.ONE, 1.4));
+            consumer.accept(withOdds, new MatchOddRow(1L, 11L, Specifier.TWO, 1.3));
+            consumer.accept(withoutOdds, null);
+            return null;
+        }).when(matchExportRepository).forEachMatchWithOdds(any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        matchExportService.exportMatches(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        assertEquals(new MatchDto(1L, "21/02/2025", "21:30", "OSFP-PAO", "OSFP", "PAO", Sport.BASKETBALL,
+                        Set.of(new OddDto(10L, Specifier.ONE, 1.4), new OddDto(11L, Specifier.TWO, 1.3))),
+                objectMapper.readValue(lines[0], MatchDto.class));
+        assertEquals(new MatchDto(2L, "15/04/2025", "17:30", "PAOK-PAO", "PAOK", "PAO", Sport.FOOTBALL, Set.of()),
+                objectMapper.readValue(lines[1], MatchDto.class));
+    }
+
+    @Test
+    public void shouldWriteNothingWithoutMatches() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        matchExportService.exportMatches(out);
+
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void shouldStopReadingWhenTheClientIsGone() {
+        doAnswer(invocation -> {
+            BiConsumer<MatchRow, MatchOddRow> consumer = invocation.getArgument(0);
+            for (long id = 1; ; id++) {
+                consumer.accept(new MatchRow(id, withOdds.matchDate(), withOdds.matchTime(), "x", "A" + id, "B", Sport.FOOTBALL), null);
+            }
+        }).when(matchExportRepository).forEachMatchWithOdds(any());
+        OutputStream closed = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> matchExportService.exportMatches(closed));
+    }
+}
@@ -0,0 +1,121 @@
+package com.okarath.assessment.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okarath.assessment.dto.MatchImportResultDto;
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.exception.InvalidImportException;
+import com.okarath.assessment.mapper.MatchMapper;
+import com.okarath.assessment.repository.MatchImportRepository;
+import com.okarath.assessment.service.MatchImportService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MatchImportServiceImplTest {
+
+    @Mock
+    private MatchImportRepository matchImportRepository;
+
+    private final List<Match> staged = new ArrayList<>();
+
+    private MatchImportService matchImportService;
+
+    @BeforeEach
+    public void setUp() {
+        matchImportService = new MatchImportServiceImpl(matchImportRepository, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new MatchMapper());
+    }
+
+    @Test
+    public void shouldStageValidRowsAndReportDuplicates() throws IOException {
+        stageAll();
+        when(matchImportRepository.merge()).thenReturn(1L);
+
+        MatchImportResultDto result = matchImportService.importMatches(ndjson("""
+                {"teamA":"OSFP","teamB":"PAO","sport":"FOOTBALL","date":"21/02/2025","time":"21:30","odds":[{"specifier":"ONE","odd":1.4}]}
+                {"teamA":"OSFP","teamB":"PAO","sport":"FOOTBALL","date":"21/02/2025","time":"18:00","description":"again"}
+                """));
+
+        assertEquals(new MatchImportResultDto(1, 1, 0, List.of()), result);
+        assertEquals(2, staged.size());
+        Match first = staged.get(0);
+        assertEquals("OSFP-PAO", first.getDescription());
+        assertEquals(LocalDate.of(2025, 2, 21), first.getMatchDate());
+        assertEquals(LocalTime.of(21, 30), first.getMatchTime());
+        assertEquals(Sport.FOOTBALL, first.getSport());
+        MatchOdd odd = first.getOdds().iterator().next();
+        assertEquals(Specifier.ONE, odd.getSpecifier());
+        assertEquals(1.4, odd.getOdd());
+    }
+
+    @Test
+    public void shouldSkipAndReportInvalidRows() throws IOException {
+        stageAll();
+        when(matchImportRepository.merge()).thenReturn(1L);
+
+        MatchImportResultDto result = matchImportService.importMatches(ndjson("""
+                {"teamA":"OSFP","teamB":"osfp","sport":"FOOTBALL","date":"21/02/2025","time":"21:30"}
+                {"teamA":"OSFP","teamB":"PAO","sport":"CRICKET","date":"21/02/2025","time":"21:30"}
+                {"teamA":"OSFP","teamB":"PAO","sport":"FOOTBALL","date":"2025-02-21","time":"21:30"}
+                {"teamA":"OSFP","teamB":"PAO","sport":"FOOTBALL","date":"32/01/2025","time":"21:30"}
+                {"teamA":"OSFP","teamB":"PAO","sport":"FOOTBALL","date":"21/02/2025"}
+                {"teamA":"OSFP","teamB":"PAO","sport":"FOOTBALL","date":"21/02/2025","time":"21:30","odds":[{"specifier":"ONE"}]}
+                {"teamA":"OSFP","teamB":"PAO","sport":"FOOTBALL","date":"21/02/2025","time":"21:30","odds":[null]}
+                null
+                {"teamA":"PAOK","teamB":"PAO","sport":"BASKETBALL","date":"15/04/2025","time":"17:30"}
+                """));
+
+        assertEquals(1, result.imported());
+        assertEquals(0, result.duplicates());
+        assertEquals(8, result.rejected());
+        assertEquals(List.of("Row 1: TeamA & TeamB must not be equal"), result.errors().subList(0, 1));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), result.errors().stream()
+                .map(error -> Long.parseLong(error.substring(4, error.indexOf(':')))).toList());
+        assertEquals(1, staged.size());
+        assertEquals("PAOK", staged.get(0).getTeamA());
+    }
+
+    @Test
+    public void shouldRejectMalformedJson() {
+        stageAll();
+
+        assertThrows(InvalidImportException.class, () -> matchImportService.importMatches(ndjson("""
+                {"teamA":"OSFP","teamB":"PAO","sport":"FOOTBALL","date":"21/02/2025","time":"21:30"}
+                {"teamA":"PAOK",
+                """)));
+    }
+
+    private void stageAll() {
+        when(matchImportRepository.stage(any())).thenAnswer(invocation -> {
+            Iterator<Match> matches = invocation.getArgument(0);
+            matches.forEachRemaining(staged::add);
+            return (long) staged.size();
+        });
+    }
+
+    private static InputStream ndjson(String rows) {
+        return new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,27 +1,50 @@
 package com.okarath.assessment.service.impl;
 
+import com.okarath.assessment.cache.CaffeineOddsCache;
+import com.okarath.assessment.cache.OddsCache;
+import com.okarath.assessment.coalescing.PendingOddsBuffer;
+import com.okarath.assessment.mapper.MatchMapper;
 import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.dto.OddUpsertDto;
+import com.okarath.assessment.dto.OddUpsertResultDto;
 import com.okarath.assessment.dto.UpdateOddDto;
+import com.okarath.assessment.dto.VersionedOdds;
 import com.okarath.assessment.entity.Match;
 import com.okarath.assessment.entity.MatchOdd;
 import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.event.OddsChangedEvent;
+import com.okarath.assessment.history.OddsHistoryEntry;
+import com.okarath.assessment.history.OddsHistoryWriter;
+import com.okarath.assessment.exception.PreconditionFailedException;
 import com.okarath.assessment.exception.ResourceAlreadyExistsException;
+import com.okarath.assessment.exception.ResourceConflictException;
 import com.okarath.assessment.exception.ResourceNotFoundException;
 import com.okarath.assessment.repository.MatchOddRepository;
 import com.okarath.assessment.repository.MatchRepository;
+import com.okarath.assessment.repository.OddsHistoryRepository;
 import com.okarath.assessment.service.MatchOddsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,8 +56,21 @@ public class MatchOddsServiceImplTest {
     @Mock
     private MatchOddRepository matchOddRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OddsHistoryWriter oddsHistoryWriter;
+
+    @Mock
+    private OddsHistoryRepository oddsHistoryRepository;
+
     private MatchOddsService matchOddsService;
 
+    private OddsCache oddsCache;
+
+    private PendingOddsBuffer pendingOddsBuffer;
+
     private OddDto oddDtoToSave;
 
 
@@ -48,7 +84,14 @@ public class MatchOddsServiceImplTest {
     @BeforeEach
     public void setUp() {
         oddDtoToSave = new OddDto(null, specifier, odd);
-        matchOddsService = new MatchOddsServiceImpl(matchRepository, matchOddRepository);
+        oddsCache = new CaffeineOddsCache(100, Duration.ofMinutes(1));
+        pendingOddsBuffer = new PendingOddsBuffer(false, Duration.ofMillis(100), 1000, 10000);
+        matchOddsService = newService();
+    }
+
+    private MatchOddsService newService() {
+        return new MatchOddsServiceImpl(matchRepository, matchOddRepository, oddsCache, eventPublisher,
+                oddsHistoryWriter, oddsHistoryRepository, pendingOddsBuffer, new MatchMapper());
     }
 
     @Test
@@ -75,7 +118,7 @@ public class MatchOddsServiceImplTest {
     public void shouldGetOddsForMatch() {
         OddDto savedOddDto = new OddDto(id, specifier, odd);
 
-        when(matchRepository.findById(id)).thenReturn(Optional.of(match));
+        when(matchRepository.findWithOddsById(id)).thenReturn(Optional.of(match));
         when(match.getOdds()).thenReturn(Set.of(MatchOdd.builder().id(id).match(match).odd(odd).specifier(specifier).build()));
 
         Set<OddDto> result = matchOddsService.getOddsForMatch(id);
@@ -84,26 +127,209 @@ public class MatchOddsServiceImplTest {
         assertEquals(savedOddDto, result.stream().findFirst().get());
     }
 
+    @Test
+    public void shouldServeRepeatedOddsReadsFromCache() {
+        when(matchRepository.findWithOddsById(id)).thenReturn(Optional.of(match));
+        when(match.getOdds()).thenReturn(Set.of(MatchOdd.builder().id(id).match(match).odd(odd).specifier(specifier).build()));
+
+        matchOddsService.getOddsForMatch(id);
+        Set<OddDto> result = matchOddsService.getOddsForMatch(id);
+
+        assertEquals(Set.of(new OddDto(id, specifier, odd)), result);
+        verify(matchRepository, times(1)).findWithOddsById(id);
+        assertEquals(1, oddsCache.stats().hitCount());
+        assertEquals(1, oddsCache.stats().missCount());
+    }
+
+    @Test
+    public void shouldReloadOddsAfterUpdate() {
+        when(matchRepository.findWithOddsById(id)).thenReturn(Optional.of(match));
+        when(match.getOdds()).thenReturn(
+                Set.of(MatchOdd.builder().id(id).match(match).odd(odd).specifier(specifier).build()),
+                Set.of(MatchOdd.builder().id(id).match(match).odd(1.99).specifier(specifier).build()));
+        when(matchOddRepository.updateOdd(id, id, 1.99)).thenReturn(Optional.of(specifier));
+        matchOddsService.getOddsForMatch(id);
+
+        matchOddsService.updateOdd(id, id, new UpdateOddDto(1.99), null);
+
+        assertEquals(Set.of(new OddDto(id, specifier, 1.99)), matchOddsService.getOddsForMatch(id));
+        assertEquals(2, oddsCache.stats().missCount());
+    }
+
     @Test
     public void shouldUpdateOdd(){
         UpdateOddDto updateOddDto = new UpdateOddDto(1.99);
-        when(matchRepository.findById(id)).thenReturn(Optional.of(match));
-        when(matchOddRepository.findByMatch(match)).thenReturn(Set.of(MatchOdd.builder().id(id).match(match).odd(odd).specifier(specifier).build()));
+        when(matchOddRepository.updateOdd(id, id, 1.99)).thenReturn(Optional.of(specifier));
+
+        matchOddsService.updateOdd(id, id, updateOddDto, null);
+        verify(matchOddRepository, times(1)).updateOdd(id, id, 1.99);
+        verify(matchRepository, never()).findById(any());
+        verify(matchRepository, times(1)).incrementVersions(List.of(id));
+        verify(eventPublisher, times(1)).publishEvent(new OddsChangedEvent(id));
+        verify(oddsHistoryWriter, times(1)).record(argThat(entries -> entries.size() == 1
+                && entries.get(0).specifier() == specifier && entries.get(0).odd() == 1.99));
+    }
+
+    @Test
+    public void shouldUpdateOddWhenMatchVersionMatches() {
+        when(matchOddRepository.updateOdd(id, id, 1.99)).thenReturn(Optional.of(specifier));
+        when(matchRepository.incrementVersionIfMatches(id, 4L)).thenReturn(1);
+
+        matchOddsService.updateOdd(id, id, new UpdateOddDto(1.99), 4L);
+
+        verify(matchRepository, never()).incrementVersions(any());
+        verify(eventPublisher, times(1)).publishEvent(new OddsChangedEvent(id));
+    }
 
-        matchOddsService.updateOdd(id, id, updateOddDto);
-        verify(matchOddRepository, times(1)).save(any());
+    @Test
+    public void shouldFailPreconditionWhenMatchVersionChanged() {
+        when(matchOddRepository.updateOdd(id, id, 1.99)).thenReturn(Optional.of(specifier));
+        when(matchRepository.incrementVersionIfMatches(id, 4L)).thenReturn(0);
 
+        assertThrows(PreconditionFailedException.class, () -> matchOddsService.updateOdd(id, id, new UpdateOddDto(1.99), 4L));
+        assertThrows(PreconditionFailedException.class, () -> {
+            when(matchOddRepository.deleteByMatchIdAndId(id, id)).thenReturn(1);
+            matchOddsService.delete(id, id, 4L);
+        });
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(oddsHistoryWriter, never()).record(any());
     }
 
     @Test
     public void shouldNotUpdateOddThatDoesNotExist(){
         UpdateOddDto updateOddDto = new UpdateOddDto(1.99);
 
-        when(matchRepository.findById(id)).thenReturn(Optional.of(match));
-        when(matchOddRepository.findByMatch(match)).thenReturn(Set.of(MatchOdd.builder().id(id).match(match).odd(odd).specifier(Specifier.TWO).build()));
+        when(matchOddRepository.updateOdd(id, 2L, 1.99)).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> matchOddsService.updateOdd(id, 2L, updateOddDto));
+        assertThrows(ResourceNotFoundException.class, () -> matchOddsService.updateOdd(id, 2L, updateOddDto, null));
         verify(matchOddRepository, times(0)).save(any());
+    }
+
+    @Test
+    public void shouldCompareAndSetOdd() {
+        when(matchOddRepository.compareAndSetOdd(id, id, odd, 1.99)).thenReturn(Optional.of(specifier));
+
+        matchOddsService.updateOdd(id, id, new UpdateOddDto(1.99, odd), null);
+
+        verify(matchOddRepository, never()).updateOdd(any(), any(), anyDouble());
+    }
+
+    @Test
+    public void shouldRejectCompareAndSetWhenCurrentOddDiffers() {
+        when(matchOddRepository.compareAndSetOdd(id, id, 1.7, 1.99)).thenReturn(Optional.empty());
+        when(matchOddRepository.existsByIdAndMatchId(id, id)).thenReturn(true);
+
+        assertThrows(ResourceConflictException.class, () -> matchOddsService.updateOdd(id, id, new UpdateOddDto(1.99, 1.7), null));
+    }
+
+    @Test
+    public void shouldNotFindOddForCompareAndSetOfMissingOdd() {
+        when(matchOddRepository.compareAndSetOdd(id, 2L, 1.7, 1.99)).thenReturn(Optional.empty());
+        when(matchOddRepository.existsByIdAndMatchId(2L, id)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> matchOddsService.updateOdd(id, 2L, new UpdateOddDto(1.99, 1.7), null));
+    }
+
+    @Test
+    public void shouldDeleteOddWithSingleStatement() {
+        when(matchOddRepository.deleteByMatchIdAndId(id, id)).thenReturn(1);
+
+        assertTrue(matchOddsService.delete(id, id, null));
+        verify(matchRepository, never()).findById(any());
+        verify(matchRepository, times(1)).incrementVersions(List.of(id));
+    }
+
+    @Test
+    public void shouldNotDeleteMissingOdd() {
+        when(matchOddRepository.deleteByMatchIdAndId(id, 2L)).thenReturn(0);
+
+        assertFalse(matchOddsService.delete(id, 2L, null));
+        verify(matchRepository, never()).incrementVersions(any());
+    }
+
+    @Test
+    public void shouldUpsertOddsAndReportStatusPerItem() {
+        List<OddUpsertDto> batch = List.of(
+                new OddUpsertDto(id, Specifier.ONE, 2.1),
+                new OddUpsertDto(id, Specifier.X, 3.2),
+                new OddUpsertDto(2L, Specifier.ONE, 1.1),
+                new OddUpsertDto(id, Specifier.X, 3.3));
+        when(matchOddRepository.findSpecifiersByMatchIds(anyCollection()))
+                .thenReturn(Map.of(id, EnumSet.of(Specifier.ONE)));
+
+        List<OddUpsertResultDto> results = matchOddsService.upsertOdds(batch);
+
+        assertEquals(List.of(
+                new OddUpsertResultDto(id, Specifier.ONE, OddUpsertResultDto.Status.UPDATED),
+                new OddUpsertResultDto(id, Specifier.X, OddUpsertResultDto.Status.SUPERSEDED),
+                new OddUpsertResultDto(2L, Specifier.ONE, OddUpsertResultDto.Status.NOT_FOUND),
+                new OddUpsertResultDto(id, Specifier.X, OddUpsertResultDto.Status.CREATED)), results);
+        verify(matchOddRepository, times(1)).upsertAll(List.of(batch.get(0), batch.get(3)));
+        verify(oddsHistoryWriter, times(1)).record(argThat(entries -> entries.stream()
+                .map(OddsHistoryEntry::odd).toList().equals(List.of(2.1, 3.3))));
+    }
+
+    @Test
+    public void shouldUpsertOddsInKeyOrder() {
+        List<OddUpsertDto> batch = List.of(
+                new OddUpsertDto(3L, Specifier.X, 3.2),
+                new OddUpsertDto(id, Specifier.X, 3.1),
+                new OddUpsertDto(3L, Specifier.ONE, 1.2),
+                new OddUpsertDto(id, Specifier.ONE, 1.1));
+        when(matchOddRepository.findSpecifiersByMatchIds(anyCollection()))
+                .thenReturn(Map.of(id, EnumSet.noneOf(Specifier.class), 3L, EnumSet.noneOf(Specifier.class)));
+
+        matchOddsService.upsertOdds(batch);
+
+        verify(matchOddRepository, times(1)).upsertAll(List.of(batch.get(3), batch.get(1), batch.get(2), batch.get(0)));
+        verify(matchRepository, times(1)).incrementVersions(List.of(id, 3L));
+    }
+
+    @Test
+    public void shouldNotFindHistoryOfMissingMatch() {
+        when(oddsHistoryRepository.findByMatchId(2L, null, null)).thenReturn(List.of());
+        when(matchRepository.existsById(2L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> matchOddsService.getOddsHistory(2L, null, null));
+    }
+
+    @Test
+    public void shouldServeBufferedOddUntilFlushed() {
+        pendingOddsBuffer = new PendingOddsBuffer(true, Duration.ofMillis(100), 1000, 10000);
+        matchOddsService = newService();
+        when(matchRepository.findWithOddsById(id)).thenReturn(Optional.of(match));
+        when(match.getOdds()).thenReturn(Set.of(MatchOdd.builder().id(id).match(match).odd(odd).specifier(specifier).build()));
+
+        assertTrue(matchOddsService.bufferOdd(id, id, new UpdateOddDto(1.8), null));
+        assertTrue(matchOddsService.bufferOdd(id, id, new UpdateOddDto(1.9), null));
+
+        VersionedOdds odds = matchOddsService.getVersionedOddsForMatch(id);
+        assertTrue(odds.pending());
+        assertEquals(Set.of(new OddDto(id, specifier, 1.9)), odds.odds());
+        verify(matchOddRepository, never()).updateOdds(any());
+
+        when(matchOddRepository.updateOdds(Map.of(id, Map.of(id, 1.9)))).thenReturn(List.of(new OddUpsertDto(id, specifier, 1.9)));
+        matchOddsService.flushPendingOdds();
+
+        assertEquals(0, pendingOddsBuffer.size());
+        verify(matchRepository, times(1)).incrementVersions(List.of(id));
+        verify(oddsHistoryWriter, times(1)).record(argThat(entries -> entries.size() == 1 && entries.get(0).odd() == 1.9));
+    }
+
+    @Test
+    public void shouldWritePendingOddsBeforeSynchronousUpdate() {
+        pendingOddsBuffer = new PendingOddsBuffer(true, Duration.ofMillis(100), 1000, 10000);
+        matchOddsService = newService();
+        pendingOddsBuffer.offer(id, 2L, 3.1);
+        when(matchOddRepository.updateOdds(Map.of(id, Map.of(2L, 3.1)))).thenReturn(List.of(new OddUpsertDto(id, Specifier.X, 3.1)));
+        when(matchOddRepository.compareAndSetOdd(id, id, odd, 1.99)).thenReturn(Optional.of(specifier));
+
+        assertFalse(matchOddsService.bufferOdd(id, id, new UpdateOddDto(1.99, odd), null));
+        matchOddsService.updateOdd(id, id, new UpdateOddDto(1.99, odd), null);
 
+        var inOrder = inOrder(matchOddRepository);
+        inOrder.verify(matchOddRepository).updateOdds(any());
+        inOrder.verify(matchOddRepository).compareAndSetOdd(id, id, odd, 1.99);
+        assertEquals(0, pendingOddsBuffer.size());
     }
 }
@@ -1,11 +1,24 @@
 package com.okarath.assessment.service.impl;
 
+import com.okarath.assessment.cache.CaffeineOddsCache;
+import com.okarath.assessment.mapper.MatchMapper;
+import com.okarath.assessment.dto.MatchCursor;
+import com.okarath.assessment.dto.MatchCursorPage;
 import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.MatchOddRow;
+import com.okarath.assessment.dto.MatchRow;
+import com.okarath.assessment.dto.MatchSearchCriteria;
+import com.okarath.assessment.dto.OddDto;
 import com.okarath.assessment.dto.UpdateMatchDto;
 import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.Specifier;
 import com.okarath.assessment.entity.Sport;
+import com.okarath.assessment.exception.InvalidCursorException;
+import com.okarath.assessment.exception.PreconditionFailedException;
 import com.okarath.assessment.exception.ResourceAlreadyExistsException;
+import com.okarath.assessment.exception.ResourceConflictException;
 import com.okarath.assessment.exception.ResourceNotFoundException;
+import com.okarath.assessment.repository.MatchOddRepository;
 import com.okarath.assessment.repository.MatchRepository;
 import com.okarath.assessment.service.MatchService;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,16 +28,20 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +53,10 @@ public class MatchServiceImplTest {
 
     @Mock
     private MatchRepository matchRepository;
+    @Mock
+    private MatchOddRepository matchOddRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @Captor
     private ArgumentCaptor<Match> captor;
 
@@ -85,19 +106,18 @@ public class MatchServiceImplTest {
                 .matchDate(LocalDate.parse(date, dateFormatter))
                 .matchTime(LocalTime.parse(time, timeFormatter))
                 .build();
-        matchService = new MatchServiceImpl(matchRepository);
+        matchService = new MatchServiceImpl(matchRepository, matchOddRepository, new CaffeineOddsCache(100, Duration.ofMinutes(1)), eventPublisher, new MatchMapper());
     }
 
 
     @Test
     public void shouldSaveNewMatch() {
-        when(matchRepository.existsByTeamAAndTeamBAndSportAndMatchDate(teamA, teamB, sport, LocalDate.parse(date, dateFormatter))).thenReturn(false);
-
-        when(matchRepository.save(any())).thenReturn(matchWithId);
+        when(matchRepository.insertIfAbsent(any())).thenReturn(Optional.of(matchWithId));
         MatchDto savedMatch = matchService.save(matchDtoToSave);
 
         assertEquals(id, savedMatch.id());
-        verify(matchRepository, times(1)).save(captor.capture());
+        verify(matchRepository, times(1)).insertIfAbsent(captor.capture());
+        verify(matchRepository, never()).save(any());
         Match match = captor.getValue();
         assertNull(match.getId());
         assertEquals(teamA, match.getTeamA());
@@ -106,7 +126,7 @@ public class MatchServiceImplTest {
 
     @Test
     public void shouldNotSaveExistingMatch() {
-        when(matchRepository.existsByTeamAAndTeamBAndSportAndMatchDate(teamA, teamB, sport, LocalDate.parse(date, dateFormatter))).thenReturn(true);
+        when(matchRepository.insertIfAbsent(any())).thenReturn(Optional.empty());
 
         ResourceAlreadyExistsException thrown = assertThrows(ResourceAlreadyExistsException.class,
                 () -> matchService.save(matchDtoToSave));
@@ -136,8 +156,10 @@ public class MatchServiceImplTest {
     @Test
     public void shouldGetMatches() {
         Pageable pageable = Pageable.ofSize(10);
-        when(matchRepository.findAll(any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(matchWithId), pageable, 1));
+        when(matchRepository.findAllIds(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(id), pageable, 1));
+        when(matchRepository.findAllByIdIn(List.of(id)))
+                .thenReturn(List.of(matchWithId));
 
         Page<MatchDto> page = matchService.getMatches(pageable);
 
@@ -145,11 +167,96 @@ public class MatchServiceImplTest {
         assertEquals(matchDtoSaved, page.get().findFirst().get());
     }
 
+    @Test
+    public void shouldSkipMatchDeletedAfterItsIdWasPaged() {
+        Pageable pageable = Pageable.ofSize(10);
+        when(matchRepository.findAllIds(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(id, 2L), pageable, 2));
+        when(matchRepository.findAllByIdIn(List.of(id, 2L)))
+                .thenReturn(List.of(matchWithId));
+
+        Page<MatchDto> page = matchService.getMatches(pageable);
+
+        assertEquals(List.of(matchDtoSaved), page.getContent());
+    }
+
+    @Test
+    public void shouldSkipMatchDeletedAfterItsIdWasSelectedAndContinueAfterTheLastOneLeft() {
+        when(matchRepository.findFirstIdsInKeysetOrder(3)).thenReturn(List.of(id, 2L, 3L));
+        when(matchRepository.findAllByIdIn(List.of(id, 2L))).thenReturn(List.of(matchWithId));
+
+        MatchCursorPage page = matchService.getMatchesAfter(null, 2);
+
+        assertEquals(List.of(matchDtoSaved), page.content());
+        assertEquals(new MatchCursor(matchWithId.getMatchDate(), matchWithId.getMatchTime(), id),
+                MatchCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    public void shouldGetFirstKeysetPageWithNextCursor() {
+        when(matchRepository.findFirstIdsInKeysetOrder(2)).thenReturn(List.of(id, 2L));
+        when(matchRepository.findAllByIdIn(List.of(id))).thenReturn(List.of(matchWithId));
+
+        MatchCursorPage page = matchService.getMatchesAfter("", 1);
+
+        assertEquals(List.of(matchDtoSaved), page.content());
+        assertEquals(new MatchCursor(matchWithId.getMatchDate(), matchWithId.getMatchTime(), id),
+                MatchCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    public void shouldSeekAfterCursorAndStopOnLastPage() {
+        MatchCursor cursor = new MatchCursor(LocalDate.parse(date, dateFormatter), LocalTime.parse(time, timeFormatter), 0L);
+        when(matchRepository.findIdsInKeysetOrderAfter(cursor.date(), cursor.time(), 0L, 11)).thenReturn(List.of(id));
+        when(matchRepository.findAllByIdIn(List.of(id))).thenReturn(List.of(matchWithId));
+
+        MatchCursorPage page = matchService.getMatchesAfter(cursor.encode(), 10);
+
+        assertEquals(List.of(matchDtoSaved), page.content());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    public void shouldRejectMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> matchService.getMatchesAfter("not-a-cursor", 10));
+    }
+
+    @Test
+    public void shouldSearchProjectedRowsAndAttachTheirOdds() {
+        MatchSearchCriteria criteria = new MatchSearchCriteria(sport, null, null, teamA, Specifier.ONE);
+        MatchRow row = new MatchRow(id, LocalDate.parse(date, dateFormatter), LocalTime.parse(time, timeFormatter),
+                matchDtoSaved.description(), teamA, teamB, sport);
+        MatchRow next = new MatchRow(2L, row.matchDate(), row.matchTime(), "next", teamA, "PAO", sport);
+        when(matchRepository.search(criteria, null, 2)).thenReturn(List.of(row, next));
+        when(matchOddRepository.findRowsByMatchIdIn(List.of(id))).thenReturn(List.of(new MatchOddRow(id, 7L, Specifier.ONE, 1.5)));
+
+        MatchCursorPage page = matchService.search(criteria, null, 1);
+
+        MatchDto expected = new MatchDto(id, date, time, matchDtoSaved.description(), teamA, teamB, sport,
+                Set.of(new OddDto(7L, Specifier.ONE, 1.5)));
+        assertEquals(List.of(expected), page.content());
+        assertEquals(new MatchCursor(row.matchDate(), row.matchTime(), id), MatchCursor.decode(page.nextCursor()));
+        verify(matchRepository, never()).findAllByIdIn(any());
+    }
+
+    @Test
+    public void shouldNotLoadOddsWhenSearchFindsNothing() {
+        MatchSearchCriteria criteria = new MatchSearchCriteria(null, LocalDate.of(2030, 1, 1), null, null, null);
+        MatchCursor after = new MatchCursor(LocalDate.of(2030, 1, 1), LocalTime.NOON, 5L);
+        when(matchRepository.search(criteria, after, 21)).thenReturn(List.of());
+
+        MatchCursorPage page = matchService.search(criteria, after.encode(), 20);
+
+        assertTrue(page.content().isEmpty());
+        assertNull(page.nextCursor());
+        verifyNoInteractions(matchOddRepository);
+    }
+
     @Test
     public void shouldReturnTrueIfDeleted() {
         when(matchRepository.existsById(id)).thenReturn(true);
 
-        boolean deleted = matchService.delete(id);
+        boolean deleted = matchService.delete(id, null);
 
         assertTrue(deleted);
         verify(matchRepository, times(1)).deleteById(id);
@@ -159,7 +266,7 @@ public class MatchServiceImplTest {
     public void shouldReturnFalseIfNotDeleted() {
         when(matchRepository.existsById(id)).thenReturn(false);
 
-        boolean deleted = matchService.delete(id);
+        boolean deleted = matchService.delete(id, null);
 
         assertFalse(deleted);
         verify(matchRepository, times(0)).deleteById(id);
@@ -171,10 +278,57 @@ public class MatchServiceImplTest {
                 .thenReturn(Optional.of(matchWithId));
         UpdateMatchDto updateMatchDto = new UpdateMatchDto(null, "new description");
 
-        matchService.updateMatch(id, updateMatchDto);
+        matchService.updateMatch(id, updateMatchDto, null);
 
         matchWithId.setDescription("new description");
 
         verify(matchRepository, times(1)).save(matchWithId);
+        verify(matchRepository, times(1)).flush();
+    }
+
+    @Test
+    public void shouldFailPreconditionWhenUpdatingStaleVersion() {
+        matchWithId.setVersion(5);
+        when(matchRepository.findById(id)).thenReturn(Optional.of(matchWithId));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> matchService.updateMatch(id, new UpdateMatchDto(null, "new description"), 4L));
+        verify(matchRepository, never()).save(any());
+    }
+
+    @Test
+    public void shouldFailPreconditionWhenVersionChangesBeforeFlush() {
+        matchWithId.setVersion(4);
+        when(matchRepository.findById(id)).thenReturn(Optional.of(matchWithId));
+        doThrow(new ObjectOptimisticLockingFailureException(Match.class, id)).when(matchRepository).flush();
+
+        assertThrows(PreconditionFailedException.class,
+                () -> matchService.updateMatch(id, new UpdateMatchDto(null, "new description"), 4L));
+        assertThrows(ResourceConflictException.class,
+                () -> matchService.updateMatch(id, new UpdateMatchDto(null, "other description"), null));
+    }
+
+    @Test
+    public void shouldDeleteMatchAtExpectedVersion() {
+        matchWithId.setVersion(4);
+        when(matchRepository.findById(id)).thenReturn(Optional.of(matchWithId));
+
+        assertTrue(matchService.delete(id, 4L));
+        verify(matchRepository, times(1)).delete(matchWithId);
+        assertThrows(PreconditionFailedException.class, () -> matchService.delete(id, 3L));
+    }
+
+    @Test
+    public void shouldGetVersion() {
+        when(matchRepository.findVersionById(id)).thenReturn(Optional.of(3L));
+
+        assertEquals(3L, matchService.getVersion(id));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenVersionOfMissingMatchRequested() {
+        when(matchRepository.findVersionById(id)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> matchService.getVersion(id));
     }
 }
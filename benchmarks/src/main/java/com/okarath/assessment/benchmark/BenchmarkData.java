@@ -0,0 +1,74 @@
+package com.okarath.assessment.benchmark;
+
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.entity.MatchOdd;
+import com.okarath.assessment.entity.Specifier;
+import com.okarath.assessment.entity.Sport;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+final class BenchmarkData {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 3, 1);
+
+    private BenchmarkData() {
+    }
+
+    static Match match(long id) {
+        Match match = Match.builder()
+                .id(id)
+                .description(String.format("Team %d-Team %d", id, id + 1))
+                .teamA("Team " + id)
+                .teamB("Team " + (id + 1))
+                .matchDate(FIRST_DATE.plusDays(id % 30))
+                .matchTime(LocalTime.of((int) (12 + id % 10), (int) (id % 4) * 15))
+                .sport(id % 2 == 0 ? Sport.FOOTBALL : Sport.BASKETBALL)
+                .build();
+
+        Set<MatchOdd> odds = new HashSet<>();
+        long oddId = id * 3;
+        for (Specifier specifier : Specifier.values()) {
+            odds.add(MatchOdd.builder()
+                    .id(oddId++)
+                    .match(match)
+                    .specifier(specifier)
+                    .odd(1.5 + (oddId % 20) / 10.0)
+                    .build());
+        }
+        match.setOdds(odds);
+        return match;
+    }
+
+    static List<Match> matches(int count) {
+        List<Match> matches = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            matches.add(match(id));
+        }
+        return matches;
+    }
+
+    static MatchDto matchDto(long id) {
+        Set<OddDto> odds = new HashSet<>();
+        for (Specifier specifier : Specifier.values()) {
+            odds.add(OddDto.builder()
+                    .specifier(specifier)
+                    .odd(1.5 + specifier.ordinal() / 10.0)
+                    .build());
+        }
+        return MatchDto.builder()
+                .teamA("Team " + id)
+                .teamB("Team " + (id + 1))
+                .date(String.format("%02d/03/2024", 1 + id % 28))
+                .time(String.format("%02d:%02d", 12 + id % 10, (id % 4) * 15))
+                .sport(Sport.FOOTBALL)
+                .odds(odds)
+                .build();
+    }
+}
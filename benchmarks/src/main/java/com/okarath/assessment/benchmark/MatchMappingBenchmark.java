@@ -0,0 +1,72 @@
+package com.okarath.assessment.benchmark;
+
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.entity.Match;
+import com.okarath.assessment.mapper.MatchMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class MatchMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private final MatchMapper matchMapper = new MatchMapper();
+    private List<Match> page;
+    private MatchDto matchDto;
+    private LocalDate date;
+    private LocalTime time;
+
+    @Setup
+    public void setUp() {
+        page = BenchmarkData.matches(pageSize);
+        matchDto = BenchmarkData.matchDto(7);
+        date = page.get(0).getMatchDate();
+        time = page.get(0).getMatchTime();
+    }
+
+    @Benchmark
+    public void matchPageToDto(Blackhole blackhole) {
+        for (Match match : page) {
+            blackhole.consume(matchMapper.toDto(match));
+        }
+    }
+
+    @Benchmark
+    public Match matchToEntity() {
+        return matchMapper.toEntity(matchDto);
+    }
+
+    @Benchmark
+    public void formatDateAndTime(Blackhole blackhole) {
+        blackhole.consume(matchMapper.formatDate(date));
+        blackhole.consume(matchMapper.formatTime(time));
+    }
+
+    @Benchmark
+    public void parseDateAndTime(Blackhole blackhole) {
+        blackhole.consume(matchMapper.parseDate(matchDto.date()));
+        blackhole.consume(matchMapper.parseTime(matchDto.time()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.okarath.assessment.benchmark;
+
+import com.okarath.assessment.cache.CaffeineOddsCache;
+import com.okarath.assessment.cache.CompactOddsCache;
+import com.okarath.assessment.cache.OddsCache;
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.dto.VersionedOdds;
+import com.okarath.assessment.mapper.MatchMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class OddsCacheBenchmark {
+
+    private static final int MATCHES = 100_000;
+
+    @Param({"caffeine", "compact"})
+    private String type;
+
+    private OddsCache oddsCache;
+    private long nextMatchId;
+    private final Function<Long, VersionedOdds> loader = matchId -> {
+        MatchMapper matchMapper = new MatchMapper();
+        return new VersionedOdds(0, BenchmarkData.match(matchId).getOdds().stream().map(matchMapper::toDto).collect(Collectors.toSet()));
+    };
+
+    @Setup
+    public void setUp() {
+        oddsCache = type.equals("compact")
+                ? new CompactOddsCache(MATCHES, Duration.ofHours(1))
+                : new CaffeineOddsCache(MATCHES, Duration.ofHours(1));
+        for (long matchId = 1; matchId <= MATCHES; matchId++) {
+            oddsCache.get(matchId, loader);
+        }
+    }
+
+    @Benchmark
+    public Set<OddDto> hit() {
+        nextMatchId = nextMatchId % MATCHES + 1;
+        return oddsCache.get(nextMatchId, loader).odds();
+    }
+
+    @Benchmark
+    public void hitAndIterate(Blackhole blackhole) {
+        for (OddDto odd : hit()) {
+            blackhole.consume(odd);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.okarath.assessment.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.MatchPage;
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.mapper.MatchMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    // same defaults as the mapper Spring Boot configures for the web layer
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private MatchPage matchPage;
+    private Set<OddDto> odds;
+
+    @Setup
+    public void setUp() {
+        MatchMapper matchMapper = new MatchMapper();
+        List<MatchDto> content = BenchmarkData.matches(pageSize).stream().map(matchMapper::toDto).toList();
+        matchPage = new MatchPage(content, PageRequest.of(0, pageSize), 1000);
+        odds = content.get(0).odds();
+    }
+
+    @Benchmark
+    public byte[] matchPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(matchPage);
+    }
+
+    @Benchmark
+    public byte[] odds() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(odds);
+    }
+}
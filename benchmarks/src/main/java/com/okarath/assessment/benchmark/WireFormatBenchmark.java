@@ -0,0 +1,100 @@
+package com.okarath.assessment.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.okarath.assessment.dto.MatchDto;
+import com.okarath.assessment.dto.MatchPage;
+import com.okarath.assessment.dto.OddDto;
+import com.okarath.assessment.mapper.MatchMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of the match page and odds payloads in JSON and in the binary formats served by content
+ * negotiation, with the mapper setup of the web layer. The encoded sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<Set<OddDto>> ODDS = new TypeReference<>() {};
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private MatchPage matchPage;
+    private Set<OddDto> odds;
+    private byte[] encodedMatchPage;
+    private byte[] encodedOdds;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(format)).build();
+        MatchMapper matchMapper = new MatchMapper();
+        List<MatchDto> content = BenchmarkData.matches(pageSize).stream().map(matchMapper::toDto).toList();
+        matchPage = new MatchPage(content, PageRequest.of(0, pageSize), 1000);
+        odds = content.get(0).odds();
+        encodedMatchPage = objectMapper.writeValueAsBytes(matchPage);
+        encodedOdds = objectMapper.writeValueAsBytes(odds);
+        System.out.printf("%s payload size: match page of %d %d bytes, odds %d bytes%n",
+                format, pageSize, encodedMatchPage.length, encodedOdds.length);
+    }
+
+    @Benchmark
+    public byte[] encodeMatchPage() throws IOException {
+        return objectMapper.writeValueAsBytes(matchPage);
+    }
+
+    @Benchmark
+    public MatchPage decodeMatchPage() throws IOException {
+        return objectMapper.readValue(encodedMatchPage, MatchPage.class);
+    }
+
+    @Benchmark
+    public byte[] encodeOdds() throws IOException {
+        return objectMapper.writeValueAsBytes(odds);
+    }
+
+    @Benchmark
+    public Set<OddDto> decodeOdds() throws IOException {
+        return objectMapper.readValue(encodedOdds, ODDS);
+    }
+
+    // the factories configured the same way as in BinaryFormatsConfig
+    private static JsonFactory factory(String format) {
+        return switch (format) {
+            case "json" -> new JsonFactory();
+            case "smile" -> SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build();
+            case "cbor" -> new CBORFactory();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.okarath.assessment.load;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The seeded matches and the ids the workload needs. Reads and updates spread over {@code load.matches} matches
+ * with all specifiers; every delete and odd creation gets a match of its own from a pool sized for the run, so
+ * no request depends on the outcome of another one.
+ */
+public class Dataset {
+
+    // deterministic values, so every run starts from the same data
+    private static final String INSERT_MATCHES = """
+            INSERT INTO matches (description, match_date, match_time, team_a, team_b, sport)
+            SELECT ? || ' match ' || g, DATE '2025-01-01' + g % 365, TIME '12:00' + (g % 48) * INTERVAL '15 minutes',
+                   ? || ' ' || g, 'Away ' || g % 1000, g % 2
+            FROM generate_series(1, ?) AS g""";
+
+    private static final String INSERT_ODDS = """
+            INSERT INTO match_odds (match_id, specifier, odd)
+            SELECT m.id, s.specifier, 1.5 + m.id % 100 / 100.0
+            FROM matches m CROSS JOIN unnest(string_to_array(?, ',')) AS s(specifier)
+            WHERE m.team_a LIKE ? || ' %'""";
+
+    private static final String SELECT_IDS = """
+            SELECT m.id, o.id
+            FROM matches m JOIN match_odds o ON o.match_id = m.id AND o.specifier = ?
+            WHERE m.team_a LIKE ? || ' %'
+            ORDER BY m.id""";
+
+    private final long[] matchIds;
+    private final long[] oddIds;
+    private final Queue<Long> matchesToDelete;
+    private final Queue<Long> matchesWithoutTwo;
+    private final Queue<long[]> oddsToDelete;
+
+    private Dataset(long[] matchIds, long[] oddIds, Queue<Long> matchesToDelete, Queue<Long> matchesWithoutTwo,
+                    Queue<long[]> oddsToDelete) {
+        this.matchIds = matchIds;
+        this.oddIds = oddIds;
+        this.matchesToDelete = matchesToDelete;
+        this.matchesWithoutTwo = matchesWithoutTwo;
+        this.oddsToDelete = oddsToDelete;
+    }
+
+    public static Dataset seed(JdbcTemplate jdbcTemplate, LoadTestConfig config) {
+        insert(jdbcTemplate, "Home", config.matches(), "ONE,X,TWO");
+        insert(jdbcTemplate, "Deleted", pool(config, "deleteMatch"), "ONE,X,TWO");
+        insert(jdbcTemplate, "Priced", pool(config, "createOdd"), "ONE,X");
+        insert(jdbcTemplate, "Unpriced", pool(config, "deleteOdd"), "ONE,X,TWO");
+        jdbcTemplate.execute("ANALYZE");
+
+        List<long[]> home = select(jdbcTemplate, "Home", "ONE");
+        return new Dataset(
+                home.stream().mapToLong(ids -> ids[0]).toArray(),
+                home.stream().mapToLong(ids -> ids[1]).toArray(),
+                new ConcurrentLinkedQueue<>(select(jdbcTemplate, "Deleted", "ONE").stream().map(ids -> ids[0]).toList()),
+                new ConcurrentLinkedQueue<>(select(jdbcTemplate, "Priced", "ONE").stream().map(ids -> ids[0]).toList()),
+                new ConcurrentLinkedQueue<>(select(jdbcTemplate, "Unpriced", "TWO")));
+    }
+
+    public int size() {
+        return matchIds.length;
+    }
+
+    public long matchId(int index) {
+        return matchIds[index];
+    }
+
+    /**
+     * The id of the ONE odd of the match at the index.
+     */
+    public long oddId(int index) {
+        return oddIds[index];
+    }
+
+    /**
+     * A match nothing else touches, or -1 once the pool is used up, which then shows up as 404 errors in the report.
+     */
+    public long nextMatchToDelete() {
+        Long id = matchesToDelete.poll();
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * A match with ONE and X odds, for adding the TWO odd.
+     */
+    public long nextMatchWithoutTwo() {
+        Long id = matchesWithoutTwo.poll();
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * The match id and the TWO odd id of a match nothing else touches.
+     */
+    public long[] nextOddToDelete() {
+        long[] ids = oddsToDelete.poll();
+        return ids == null ? new long[]{-1, -1} : ids;
+    }
+
+    private static int pool(LoadTestConfig config, String operation) {
+        // a fifth more than expected, the operations are picked at random
+        return (int) (config.expectedRequests(operation) * 1.2) + 100;
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, String team, int count, String specifiers) {
+        jdbcTemplate.update(INSERT_MATCHES, team, team, count);
+        jdbcTemplate.update(INSERT_ODDS, specifiers, team);
+    }
+
+    private static List<long[]> select(JdbcTemplate jdbcTemplate, String team, String specifier) {
+        List<long[]> ids = new ArrayList<>();
+        jdbcTemplate.query(SELECT_IDS, rs -> {
+            ids.add(new long[]{rs.getLong(1), rs.getLong(2)});
+        }, specifier, team);
+        return ids;
+    }
+}
@@ -0,0 +1,94 @@
+package com.okarath.assessment.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latency percentiles and throughput per arrival rate and operation, written as JSON so the reports of two
+ * commits can be compared with {@code compare}. Latencies are in milliseconds, from the scheduled send time
+ * to the end of the response body, and only cover successful requests.
+ */
+public record LoadReport(String label, Instant startedAt, Map<String, String> environment, LoadTestConfig config,
+                         List<Phase> phases) {
+
+    public static final String ALL = "all";
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .findAndAddModules()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+            .build();
+
+    public record Phase(int rate, List<OperationReport> operations) {
+
+        public static Phase of(int rate, Duration duration, Map<String, OpenLoopDriver.OperationStats> stats) {
+            List<OperationReport> operations = new ArrayList<>();
+            Histogram all = new Histogram(3);
+            Map<String, Long> allErrors = new TreeMap<>();
+            new TreeMap<>(stats).forEach((name, operationStats) -> {
+                Histogram histogram = operationStats.histogram();
+                Map<String, Long> errors = new TreeMap<>(operationStats.errors());
+                operations.add(OperationReport.of(name, histogram, errors, duration));
+                all.add(histogram);
+                errors.forEach((cause, count) -> allErrors.merge(cause, count, Long::sum));
+            });
+            operations.add(0, OperationReport.of(ALL, all, allErrors, duration));
+            return new Phase(rate, operations);
+        }
+
+        public OperationReport operation(String name) {
+            return operations.stream().filter(operation -> operation.operation().equals(name)).findFirst().orElse(null);
+        }
+    }
+
+    public record OperationReport(String operation, long requests, long errors, double throughputPerSecond,
+                                  double p50Ms, double p95Ms, double p99Ms, double maxMs, Map<String, Long> errorCauses) {
+
+        static OperationReport of(String name, Histogram latencies, Map<String, Long> errorCauses, Duration duration) {
+            long errors = errorCauses.values().stream().mapToLong(Long::longValue).sum();
+            return new OperationReport(name, latencies.getTotalCount() + errors, errors,
+                    latencies.getTotalCount() / (duration.toMillis() / 1000.0),
+                    millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(95)),
+                    millis(latencies.getValueAtPercentile(99)), millis(latencies.getMaxValue()), errorCauses);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        MAPPER.writeValue(path.toFile(), this);
+    }
+
+    public static LoadReport read(Path path) throws IOException {
+        return MAPPER.readValue(path.toFile(), LoadReport.class);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%s, started %s%n", label, startedAt);
+        for (Phase phase : phases) {
+            out.printf("%n%d requests/s%n", phase.rate());
+            out.printf("%-20s %9s %9s %12s %9s %9s %9s %9s%n", "operation", "requests", "errors", "throughput/s",
+                    "p50 ms", "p95 ms", "p99 ms", "max ms");
+            for (OperationReport operation : phase.operations()) {
+                out.printf("%-20s %9d %9d %12.1f %9.2f %9.2f %9.2f %9.2f%n", operation.operation(), operation.requests(),
+                        operation.errors(), operation.throughputPerSecond(), operation.p50Ms(), operation.p95Ms(),
+                        operation.p99Ms(), operation.maxMs());
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.okarath.assessment.load;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+/**
+ * Prints the latency and throughput differences between a baseline and a new report, phase by phase and operation
+ * by operation. With {@code -Dload.max-p99-regression=0.2} it exits with 1 if the p99 of all requests at any rate
+ * got more than 20% worse, so it can gate a build.
+ */
+public class LoadReportComparison {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: compare <baseline report> <new report>");
+            System.exit(2);
+        }
+        LoadReport baseline = LoadReport.read(Path.of(args[0]));
+        LoadReport current = LoadReport.read(Path.of(args[1]));
+        String maxRegression = System.getProperty("load.max-p99-regression");
+
+        boolean regressed = compare(baseline, current, maxRegression == null ? Double.NaN : Double.parseDouble(maxRegression), System.out);
+        if (regressed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return whether the p99 of all requests regressed by more than {@code maxP99Regression} at any rate
+     */
+    static boolean compare(LoadReport baseline, LoadReport current, double maxP99Regression, PrintStream out) {
+        out.printf("%s -> %s%n", baseline.label(), current.label());
+        if (!baseline.config().equals(current.config())) {
+            out.println("WARNING: the reports were produced with different settings and are not directly comparable");
+            out.printf("  %s%n  %s%n", baseline.config(), current.config());
+        }
+
+        boolean regressed = false;
+        for (LoadReport.Phase phase : current.phases()) {
+            LoadReport.Phase basePhase = baseline.phases().stream()
+                    .filter(candidate -> candidate.rate() == phase.rate()).findFirst().orElse(null);
+            if (basePhase == null) continue;
+
+            out.printf("%n%d requests/s%n", phase.rate());
+            out.printf("%-20s %22s %22s %22s %24s %13s%n", "operation", "p50 ms", "p95 ms", "p99 ms", "throughput/s", "errors");
+            for (LoadReport.OperationReport operation : phase.operations()) {
+                LoadReport.OperationReport base = basePhase.operation(operation.operation());
+                if (base == null) continue;
+                out.printf("%-20s %22s %22s %22s %24s %6d -> %-4d%n", operation.operation(),
+                        change(base.p50Ms(), operation.p50Ms()), change(base.p95Ms(), operation.p95Ms()),
+                        change(base.p99Ms(), operation.p99Ms()),
+                        change(base.throughputPerSecond(), operation.throughputPerSecond()),
+                        base.errors(), operation.errors());
+            }
+
+            LoadReport.OperationReport all = phase.operation(LoadReport.ALL);
+            LoadReport.OperationReport baseAll = basePhase.operation(LoadReport.ALL);
+            if (!Double.isNaN(maxP99Regression) && all.p99Ms() > baseAll.p99Ms() * (1 + maxP99Regression)) {
+                out.printf("p99 at %d requests/s regressed from %.2f to %.2f ms%n", phase.rate(), baseAll.p99Ms(), all.p99Ms());
+                regressed = true;
+            }
+        }
+        return regressed;
+    }
+
+    private static String change(double before, double after) {
+        if (before == 0) return String.format("%.2f -> %.2f", before, after);
+        return String.format("%.2f -> %.2f (%+.0f%%)", before, after, (after - before) / before * 100);
+    }
+}
@@ -0,0 +1,56 @@
+package com.okarath.assessment.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from {@code -Dload.*} system properties. Two reports are only comparable
+ * if they were produced with the same settings, so all of them are written into the report.
+ *
+ * @param matches matches seeded for the read and update operations
+ * @param rates   arrival rates in requests per second, one measured phase each
+ * @param warmup  unmeasured time at the phase's rate before each phase
+ * @param mix     relative weight of each operation
+ */
+public record LoadTestConfig(int matches, List<Integer> rates, Duration warmup, Duration duration, long seed,
+                             String postgresImage, Map<String, Integer> mix) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        Map<String, Integer> mix = new LinkedHashMap<>(Workload.DEFAULT_MIX);
+        String mixOverrides = System.getProperty("load.mix", "");
+        for (String weight : mixOverrides.split(",")) {
+            if (weight.isBlank()) continue;
+            String[] parts = weight.split("=");
+            if (parts.length != 2 || !mix.containsKey(parts[0].trim())) {
+                throw new IllegalArgumentException("load.mix entries must be <operation>=<weight> with one of " + mix.keySet());
+            }
+            mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+
+        return new LoadTestConfig(
+                Integer.getInteger("load.matches", 10_000),
+                Arrays.stream(System.getProperty("load.rates", "100,200,400").split(","))
+                        .map(String::trim).map(Integer::valueOf).toList(),
+                DurationStyle.detectAndParse(System.getProperty("load.warmup", "10s")),
+                DurationStyle.detectAndParse(System.getProperty("load.duration", "30s")),
+                Long.getLong("load.seed", 42),
+                // pinned rather than latest, so the database does not change between the runs being compared
+                System.getProperty("load.postgres-image", "postgres:16"),
+                mix);
+    }
+
+    /**
+     * The number of requests of the operation expected over the whole run, warmups included.
+     */
+    public long expectedRequests(String operation) {
+        long totalWeight = mix.values().stream().mapToLong(Integer::longValue).sum();
+        double seconds = (warmup.toMillis() + duration.toMillis()) / 1000.0;
+        double requests = rates.stream().mapToDouble(rate -> rate * seconds).sum();
+        return (long) Math.ceil(requests * mix.getOrDefault(operation, 0) / totalWeight);
+    }
+}
@@ -0,0 +1,125 @@
+package com.okarath.assessment.load;
+
+import com.okarath.assessment.MatchOddsAppApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Boots the app against a fresh Postgres container, seeds it and runs the workload at each configured arrival rate,
+ * then prints the report and writes it to {@code load.result}. Arguments are passed to the app, e.g.
+ * {@code --app.odds-coalescing.enabled=true}; {@code compare <baseline> <new>} compares two reports instead.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("compare")) {
+            LoadReportComparison.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        Path result = Path.of(System.getProperty("load.result", "load-result.json"));
+        String label = System.getProperty("load.label", gitDescribe());
+        Instant startedAt = Instant.now();
+
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse(config.postgresImage())
+                .asCompatibleSubstituteFor("postgres"))
+                .withDatabaseName("load-tests")
+                .withUsername("user")
+                .withPassword("pass")) {
+            postgres.start();
+
+            ExecutorService bodyReaders = Executors.newCachedThreadPool(new CustomizableThreadFactory("load-body-"));
+            try (ConfigurableApplicationContext context = start(postgres, args)) {
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                System.out.printf("Seeding %d matches%n", config.matches());
+                Dataset dataset = Dataset.seed(jdbcTemplate, config);
+
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                Workload workload = new Workload("http://localhost:" + port, dataset, config);
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                OpenLoopDriver driver = new OpenLoopDriver(httpClient, bodyReaders, workload);
+
+                List<LoadReport.Phase> phases = new ArrayList<>();
+                for (int rate : config.rates()) {
+                    System.out.printf("%d requests/s: %s warmup, %s measured%n", rate, config.warmup(), config.duration());
+                    driver.run(rate, config.warmup());
+                    phases.add(LoadReport.Phase.of(rate, config.duration(), driver.run(rate, config.duration())));
+                }
+
+                LoadReport report = new LoadReport(label, startedAt, environment(jdbcTemplate), config, phases);
+                report.print(System.out);
+                report.write(result);
+                System.out.printf("%nWritten to %s%n", result.toAbsolutePath());
+            } finally {
+                bodyReaders.shutdownNow();
+                bodyReaders.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(PostgreSQLContainer<?> postgres, String[] args) {
+        String r2dbcUrl = "r2dbc:postgresql://" + postgres.getHost() + ":" + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT)
+                + "/" + postgres.getDatabaseName();
+        // passed as arguments, default properties would lose against application.yml; later arguments win
+        String[] connection = {
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.r2dbc.url=" + r2dbcUrl,
+                "--spring.r2dbc.username=" + postgres.getUsername(),
+                "--spring.r2dbc.password=" + postgres.getPassword()};
+        return new SpringApplicationBuilder(MatchOddsAppApplication.class)
+                .run(Stream.concat(Arrays.stream(connection), Arrays.stream(args)).toArray(String[]::new));
+    }
+
+    private static Map<String, String> environment(JdbcTemplate jdbcTemplate) {
+        Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("java", System.getProperty("java.vm.name") + " " + Runtime.version());
+        environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        environment.put("processors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        environment.put("maxHeap", Runtime.getRuntime().maxMemory() / (1024 * 1024) + "m");
+        environment.put("postgres", jdbcTemplate.queryForObject("SELECT version()", String.class));
+        return environment;
+    }
+
+    private static String gitDescribe() {
+        try {
+            Process git = new ProcessBuilder("git", "describe", "--always", "--dirty").redirectErrorStream(true).start();
+            String output = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return git.waitFor() == 0 && !output.isEmpty() ? output : "unknown";
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.okarath.assessment.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed arrival rate, whether or not earlier ones have completed, and records per operation
+ * how long each took from the moment it was scheduled to be sent. Measuring from the schedule rather than from the
+ * actual send keeps a stalled server from hiding its own queueing delay (coordinated omission).
+ */
+public class OpenLoopDriver {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient httpClient;
+    private final ExecutorService bodyReaders;
+    private final Workload workload;
+
+    public OpenLoopDriver(HttpClient httpClient, ExecutorService bodyReaders, Workload workload) {
+        this.httpClient = httpClient;
+        this.bodyReaders = bodyReaders;
+        this.workload = workload;
+    }
+
+    /**
+     * Runs the workload at {@code rate} requests per second for {@code duration} and waits for the requests to finish.
+     */
+    public Map<String, OperationStats> run(int rate, Duration duration) throws InterruptedException {
+        Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+        Phaser inFlight = new Phaser(1);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) break;
+            long delay;
+            while ((delay = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+
+            Workload.Operation operation = workload.next();
+            OperationStats operationStats = stats.computeIfAbsent(operation.name(), name -> new OperationStats());
+            HttpRequest request = workload.request(operation);
+            inFlight.register();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                    .thenApplyAsync(response -> read(response, operation.firstEvent()), bodyReaders)
+                    .whenComplete((status, error) -> {
+                        long latencyNanos = System.nanoTime() - scheduled;
+                        if (error != null) {
+                            operationStats.error(rootCause(error));
+                        } else if (!operation.expectedStatuses().contains(status)) {
+                            operationStats.error("status " + status);
+                        } else {
+                            operationStats.success(latencyNanos);
+                        }
+                        inFlight.arriveAndDeregister();
+                    });
+        }
+
+        try {
+            inFlight.awaitAdvanceInterruptibly(inFlight.arrive(), DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            System.err.printf("%d requests still running %s after the phase, they are not counted%n",
+                    inFlight.getUnarrivedParties(), DRAIN_TIMEOUT);
+        }
+        return stats;
+    }
+
+    private static int read(HttpResponse<InputStream> response, boolean firstEvent) {
+        try (InputStream body = response.body()) {
+            if (firstEvent) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null && !line.startsWith("data:")) {
+                    // skip event names and comments up to the first payload
+                }
+            } else {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Reading the response body failed: " + e.getMessage(), e);
+        }
+        return response.statusCode();
+    }
+
+    private static String rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Latencies of the successful requests of an operation, in microseconds, and the errors by cause.
+     */
+    public static class OperationStats {
+
+        private final Recorder latencies = new Recorder(3);
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        void success(long latencyNanos) {
+            latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        }
+
+        void error(String cause) {
+            errors.computeIfAbsent(cause, c -> new LongAdder()).increment();
+        }
+
+        public Histogram histogram() {
+            return latencies.getIntervalHistogram();
+        }
+
+        public Map<String, Long> errors() {
+            Map<String, Long> counts = new ConcurrentHashMap<>();
+            errors.forEach((cause, count) -> counts.put(cause, count.sum()));
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.okarath.assessment.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The mix of requests across all {@code /api/v1/matches} endpoints. Operations are picked by weight with a seeded
+ * random, so the same settings send the same sequence of requests on every run.
+ */
+public class Workload {
+
+    /**
+     * Per mille weights: mostly odds and match reads, a quarter odds updates and a few of every other write.
+     * The export reads the whole table and is kept rare.
+     */
+    public static final Map<String, Integer> DEFAULT_MIX = defaultMix();
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] SPECIFIERS = {"ONE", "X", "TWO"};
+    private static final String[] SPORTS = {"FOOTBALL", "BASKETBALL"};
+    private static final int BATCH_SIZE = 10;
+    private static final int IMPORT_SIZE = 20;
+
+    /**
+     * A kind of request. {@code firstEvent} requests are done with the first line of the body, for streams that
+     * do not end.
+     */
+    public record Operation(String name, Set<Integer> expectedStatuses, boolean firstEvent,
+                            Function<Random, HttpRequest> request) {
+    }
+
+    private final String baseUrl;
+    private final Dataset dataset;
+    private final Random random;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final AtomicLong created = new AtomicLong();
+
+    public Workload(String baseUrl, Dataset dataset, LoadTestConfig config) {
+        this.baseUrl = baseUrl + "/api/v1/matches";
+        this.dataset = dataset;
+        this.random = new Random(config.seed());
+
+        Map<String, Operation> all = new LinkedHashMap<>();
+        for (Operation operation : operations()) {
+            all.put(operation.name(), operation);
+        }
+        List<Map.Entry<String, Integer>> weighted = config.mix().entrySet().stream()
+                .filter(weight -> weight.getValue() > 0)
+                .toList();
+        this.operations = new Operation[weighted.size()];
+        this.cumulativeWeights = new int[weighted.size()];
+        int total = 0;
+        for (int i = 0; i < weighted.size(); i++) {
+            operations[i] = all.get(weighted.get(i).getKey());
+            total += weighted.get(i).getValue();
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Picks the next operation. Only called by the thread that schedules the requests.
+     */
+    public Operation next() {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) return operations[i];
+        }
+        throw new IllegalStateException("No operation for weight " + pick);
+    }
+
+    public HttpRequest request(Operation operation) {
+        return operation.request().apply(random);
+    }
+
+    private List<Operation> operations() {
+        return List.of(
+                new Operation("getMatch", Set.of(200), false,
+                        r -> get("/" + dataset.matchId(r.nextInt(dataset.size())))),
+                new Operation("getOdds", Set.of(200), false,
+                        r -> get("/" + dataset.matchId(r.nextInt(dataset.size())) + "/odds")),
+                new Operation("listMatches", Set.of(200), false,
+                        r -> get("?page=" + r.nextInt(Math.max(dataset.size() / 20, 1)) + "&size=20")),
+                new Operation("listMatchesByCursor", Set.of(200), false,
+                        r -> get("?cursor=&size=20")),
+                new Operation("searchMatches", Set.of(200), false, r -> {
+                    LocalDate from = LocalDate.of(2025, 1, 1).plusDays(r.nextInt(358));
+                    String specifier = r.nextBoolean() ? "&specifier=" + SPECIFIERS[r.nextInt(SPECIFIERS.length)] : "";
+                    return get("/search?sport=" + SPORTS[r.nextInt(SPORTS.length)] + "&from=" + from + "&to=" + from.plusDays(7) + specifier);
+                }),
+                new Operation("getOddsHistory", Set.of(200), false,
+                        r -> get("/" + dataset.matchId(r.nextInt(dataset.size())) + "/odds/history")),
+                new Operation("streamOdds", Set.of(200), true,
+                        r -> get("/" + dataset.matchId(r.nextInt(dataset.size())) + "/odds/stream")),
+                new Operation("exportMatches", Set.of(200), false,
+                        r -> get("/export")),
+                // 202 when the app runs with odds coalescing
+                new Operation("updateOdd", Set.of(202, 204), false, r -> {
+                    int index = r.nextInt(dataset.size());
+                    return send("PATCH", "/" + dataset.matchId(index) + "/odds/" + dataset.oddId(index),
+                            "{\"odd\":" + odd(r) + "}", "application/json");
+                }),
+                new Operation("upsertOddsBatch", Set.of(200), false, r -> {
+                    // consecutive matches, a batch must not name the same odd twice
+                    int first = r.nextInt(Math.max(dataset.size() - BATCH_SIZE, 1));
+                    StringBuilder body = new StringBuilder("{\"odds\":[");
+                    for (int i = 0; i < BATCH_SIZE && first + i < dataset.size(); i++) {
+                        if (i > 0) body.append(',');
+                        body.append("{\"matchId\":").append(dataset.matchId(first + i))
+                                .append(",\"specifier\":\"").append(SPECIFIERS[r.nextInt(SPECIFIERS.length)])
+                                .append("\",\"odd\":").append(odd(r)).append('}');
+                    }
+                    return send("POST", "/odds/batch", body.append("]}").toString(), "application/json");
+                }),
+                new Operation("createMatch", Set.of(201), false,
+                        r -> send("POST", "", match("Created", created.incrementAndGet(), r), "application/json")),
+                new Operation("updateMatch", Set.of(204), false,
+                        r -> send("PATCH", "/" + dataset.matchId(r.nextInt(dataset.size())),
+                                "{\"description\":\"Updated " + r.nextInt(1000) + "\"}", "application/json")),
+                new Operation("createOdd", Set.of(201), false,
+                        r -> send("POST", "/" + dataset.nextMatchWithoutTwo() + "/odds",
+                                "{\"specifier\":\"TWO\",\"odd\":" + odd(r) + "}", "application/json")),
+                new Operation("deleteOdd", Set.of(204), false, r -> {
+                    long[] ids = dataset.nextOddToDelete();
+                    return send("DELETE", "/" + ids[0] + "/odds/" + ids[1], null, null);
+                }),
+                new Operation("deleteMatch", Set.of(204), false,
+                        r -> send("DELETE", "/" + dataset.nextMatchToDelete(), null, null)),
+                new Operation("importMatches", Set.of(200), false, r -> {
+                    StringBuilder body = new StringBuilder();
+                    for (int i = 0; i < IMPORT_SIZE; i++) {
+                        body.append(match("Imported", created.incrementAndGet(), r)).append('\n');
+                    }
+                    return send("POST", "/import", body.toString(), "application/x-ndjson");
+                }));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body, String contentType) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+        if (body == null) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", contentType)
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String match(String team, long number, Random random) {
+        LocalDate date = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365));
+        return String.format("{\"teamA\":\"%s A %d\",\"teamB\":\"%s B %d\",\"sport\":\"%s\",\"date\":\"%02d/%02d/%d\",\"time\":\"20:00\","
+                        + "\"odds\":[{\"specifier\":\"ONE\",\"odd\":%s},{\"specifier\":\"X\",\"odd\":%s}]}",
+                team, number, team, number, SPORTS[random.nextInt(SPORTS.length)],
+                date.getDayOfMonth(), date.getMonthValue(), date.getYear(), odd(random), odd(random));
+    }
+
+    private static String odd(Random random) {
+        return String.valueOf(1.01 + random.nextInt(900) / 100.0);
+    }
+
+    private static Map<String, Integer> defaultMix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("getMatch", 200);
+        mix.put("getOdds", 250);
+        mix.put("listMatches", 80);
+        mix.put("listMatchesByCursor", 80);
+        mix.put("searchMatches", 80);
+        mix.put("getOddsHistory", 40);
+        mix.put("streamOdds", 4);
+        mix.put("exportMatches", 1);
+        mix.put("updateOdd", 150);
+        mix.put("upsertOddsBatch", 20);
+        mix.put("createMatch", 25);
+        mix.put("updateMatch", 20);
+        mix.put("createOdd", 15);
+        mix.put("deleteOdd", 15);
+        mix.put("deleteMatch", 15);
+        mix.put("importMatches", 5);
+        return Collections.unmodifiableMap(mix);
+    }
+}